@@ -0,0 +1,107 @@
+package com.hitomi.refresh.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one frame of the battle city game across difficulty levels and numbers of tanks and bullets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BattleCityBenchmark {
+
+    @Param({"1", "5", "10"})
+    public int level;
+
+    /**
+     * Enemy tanks on each track, also the number of bullets on the screen
+     */
+    @Param({"2", "8", "16"})
+    public int entityNum;
+
+    private BattleCityGame game;
+
+    private GameCanvas canvas;
+
+    /**
+     * Coordinates of a bullet just fired on the first track, it does not hit anything
+     */
+    private int probeX, probeY;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        game = new BattleCityGame(HitBlockBenchmark.SCREEN_WIDTH, HitBlockBenchmark.SCREEN_HEIGHT, new Random(42));
+        canvas = new BlackholeGameCanvas(blackhole);
+        probeX = HitBlockBenchmark.SCREEN_WIDTH - 1;
+        probeY = (int) (FunGame.DIVIDING_LINE_SIZE + game.getControllerSize() * .5f);
+        startGame();
+    }
+
+    /**
+     * Reset the game at the configured level, enemy tanks fill the left half of every track
+     * and bullets the right half of the first one
+     */
+    private void startGame() {
+        game.setStatus(FunGame.STATUS_GAME_PREPAR);
+        game.setStatus(FunGame.STATUS_GAME_PLAY);
+        for (int i = 1; i < level; i++) {
+            game.upLevel();
+        }
+
+        float spacing = HitBlockBenchmark.SCREEN_WIDTH * .5f / entityNum;
+        for (int track = 0; track < BattleCityGame.TANK_ROW_NUM; track++) {
+            for (int i = entityNum - 1; i >= 0; i--) {
+                game.addEnemyTank(track, i * spacing);
+            }
+        }
+        for (int i = 0; i < entityNum; i++) {
+            game.addBullet((int) (HitBlockBenchmark.SCREEN_WIDTH - i * spacing), probeY);
+        }
+    }
+
+    /**
+     * One simulation step, a finished game is restarted
+     */
+    @Benchmark
+    public void step() {
+        if (!game.isRunning()) {
+            startGame();
+        }
+        game.step();
+    }
+
+    @Benchmark
+    public boolean checkWipeOutETank() {
+        return game.checkWipeOutETank(probeX, probeY);
+    }
+
+    @Benchmark
+    public boolean checkTankCrash() {
+        return game.checkTankCrash(0, HitBlockBenchmark.SCREEN_WIDTH - game.getControllerSize(), game.getControllerPosition());
+    }
+
+    /**
+     * Drawing commands of one frame
+     */
+    @Benchmark
+    public void render() {
+        game.render(canvas, .5f);
+    }
+}
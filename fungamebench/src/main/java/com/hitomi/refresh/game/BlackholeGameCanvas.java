@@ -0,0 +1,33 @@
+package com.hitomi.refresh.game;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Game canvas consuming every drawing command, so the generation of the commands
+ * is measured without the cost of actual rasterization
+ */
+final class BlackholeGameCanvas implements GameCanvas {
+
+    private final Blackhole blackhole;
+
+    BlackholeGameCanvas(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int color) {
+        blackhole.consume(left);
+        blackhole.consume(top);
+        blackhole.consume(right);
+        blackhole.consume(bottom);
+        blackhole.consume(color);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int color) {
+        blackhole.consume(cx);
+        blackhole.consume(cy);
+        blackhole.consume(radius);
+        blackhole.consume(color);
+    }
+}
@@ -0,0 +1,143 @@
+package com.hitomi.refresh.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one frame of the hit block game across grid sizes and amounts of destroyed blocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HitBlockBenchmark {
+
+    static final int SCREEN_WIDTH = 1080;
+
+    static final int SCREEN_HEIGHT = 1920;
+
+    /**
+     * Number of block columns, the grid always has five rows
+     */
+    @Param({"3", "8", "20"})
+    public int blockHorizontalNum;
+
+    @Param({"0", "50", "90"})
+    public int destroyedPercent;
+
+    private HitBlockGame game;
+
+    private GameCanvas canvas;
+
+    /**
+     * Ball coordinates mapped to the last destroyed block, left of the grid when no block is destroyed
+     */
+    private float probeX, probeY;
+
+    /**
+     * Column and row of the first intact block
+     */
+    private int intactColumn, intactRow;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        game = new HitBlockGame(SCREEN_WIDTH, SCREEN_HEIGHT);
+        game.setBlockHorizontalNum(blockHorizontalNum);
+        canvas = new BlackholeGameCanvas(blackhole);
+        startGame();
+    }
+
+    /**
+     * Reset the game and destroy the configured share of blocks, row by row
+     */
+    private void startGame() {
+        game.setStatus(FunGame.STATUS_GAME_PREPAR);
+
+        int destroyedNum = blockHorizontalNum * HitBlockGame.BLOCK_VERTICAL_NUM * destroyedPercent / 100;
+        int column = -2, row = 0; // Without destroyed blocks the probe misses the grid, the ball passes too
+        for (int i = 0; i < destroyedNum; i++) {
+            column = i % blockHorizontalNum;
+            row = i / blockHorizontalNum;
+            game.destroyBlock(column, row);
+        }
+        probeX = game.getBallXForColumn(column);
+        probeY = game.getBallYForRow(row);
+        intactColumn = destroyedNum % blockHorizontalNum;
+        intactRow = destroyedNum / blockHorizontalNum;
+
+        game.setStatus(FunGame.STATUS_GAME_PLAY);
+    }
+
+    /**
+     * One simulation step with the racket following the ball, a finished game is restarted
+     */
+    @Benchmark
+    public void step() {
+        if (!game.isRunning()) {
+            startGame();
+        }
+        game.moveController(game.getBallY() - game.getControllerSize() * .5f);
+        game.step();
+    }
+
+    /**
+     * Ball over a destroyed block, or beside the grid when none is destroyed: it passes through
+     */
+    @Benchmark
+    public boolean checkTouchBlock() {
+        return game.checkTouchBlock(probeX, probeY);
+    }
+
+    /**
+     * Ball over an intact block, which is destroyed
+     */
+    @Benchmark
+    public boolean checkTouchIntactBlock(IntactBlock intactBlock) {
+        return game.checkTouchBlock(intactBlock.x, intactBlock.y);
+    }
+
+    @Benchmark
+    public boolean checkTouchRacket() {
+        return game.checkTouchRacket(probeY);
+    }
+
+    /**
+     * Drawing commands of one frame
+     */
+    @Benchmark
+    public void render() {
+        game.render(canvas, .5f);
+    }
+
+    /**
+     * First intact block of the benchmarked game, made intact again before every call since hitting destroys it.
+     * A separate state keeps the per-call setup away from the other benchmarks.
+     */
+    @State(Scope.Thread)
+    public static class IntactBlock {
+
+        float x, y;
+
+        @Setup(Level.Invocation)
+        public void restore(HitBlockBenchmark benchmark) {
+            benchmark.game.restoreBlock(benchmark.intactColumn, benchmark.intactRow);
+            x = benchmark.game.getBallXForColumn(benchmark.intactColumn);
+            y = benchmark.game.getBallYForRow(benchmark.intactRow);
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.hitomi.refresh.game;
+
+import java.util.Random;
+
+/**
+ * Battle city game: enemy tanks come from the left on three tracks, our tank on the right
+ * moves between the tracks and keeps firing, a crash or too many missed tanks end the game.
+ */
+public class BattleCityGame extends FunGame {
+
+    /**
+     * Number of tracks
+     */
+    static final int TANK_ROW_NUM = 3;
+
+    /**
+     * Ratio of barrel size to tank size
+     */
+    private static final float TANK_BARREL_RATIO = 1 / 3.f;
+
+    /**
+     * Default spacing between bullets
+     */
+    private static final int DEFAULT_BULLET_NUM_SPACING = 360;
+
+    /**
+     * Default spacing between enemy tanks
+     */
+    private static final int DEFAULT_ENEMY_TANK_NUM_SPACING = 60;
+
+    /**
+     * Total number of missed enemy tanks and the increment of total number of tanks destroyed after upgrading
+     */
+    private static final int DEFAULT_TANK_MAGIC_TOTAL_NUM = 8;
+
+    /**
+     * Initial capacity of the enemy tank queue of a track and of the bullet queue
+     */
+    private static final int DEFAULT_ENTITY_CAPACITY = 16;
+
+    /**
+     * Left coordinates of the enemy tanks on each track, from the rightmost to the leftmost tank.
+     * The other edges of a tank follow from its track and the tank size
+     */
+    private final FloatRingBuffer[] eTankLefts = new FloatRingBuffer[TANK_ROW_NUM];
+
+    /**
+     * Center coordinates of all bullets on the screen, from the leftmost to the rightmost bullet
+     */
+    private final FloatRingBuffer mBulletXs = new FloatRingBuffer(DEFAULT_ENTITY_CAPACITY);
+
+    private final FloatRingBuffer mBulletYs = new FloatRingBuffer(DEFAULT_ENTITY_CAPACITY);
+
+    /**
+     * Used to randomly position a track index
+     */
+    private final Random random;
+
+    /**
+     * Bullet radius
+     */
+    private float bulletRadius;
+
+    /**
+     * Spacing between enemy tanks and bullets
+     */
+    private int enemyTankSpace, bulletSpace;
+
+    /**
+     * Barrel size
+     */
+    private int barrelSize;
+
+    /**
+     * Width of an enemy tank body
+     */
+    private float eTankWidth;
+
+    /**
+     * Enemy tank speed, bullet speed, in pixels per simulation step
+     */
+    private int enemySpeed = 2, bulletSpeed = 7;
+
+    /**
+     * Current offset between the previous and next existing enemy tank
+     * Used to determine whether to send out a new enemy tank
+     */
+    private int offsetETankX;
+
+    /**
+     * Current offset between the previous and next bullet
+     * Used to determine whether to fire a new bullet
+     */
+    private int offsetMBulletX;
+
+    /**
+     * Current number of missed tanks
+     */
+    private int overstepNum;
+
+    /**
+     * Number of tanks to be destroyed in the current difficulty level
+     */
+    private int levelNum;
+
+    /**
+     * Number of enemy tanks destroyed in the current difficulty level
+     */
+    private int wipeOutNum;
+
+    /**
+     * First mark value, used to add logic to add the first enemy tank
+     */
+    private boolean once = true;
+
+    public BattleCityGame(int screenWidth, int screenHeight) {
+        this(screenWidth, screenHeight, new Random());
+    }
+
+    /**
+     * @param random source of the enemy tank tracks, a seeded one replays the same game
+     */
+    public BattleCityGame(int screenWidth, int screenHeight, Random random) {
+        super(screenWidth, screenHeight);
+        this.random = random;
+
+        controllerSize = (int) (Math.floor((screenHeight * VIEW_HEIGHT_RATIO - (TANK_ROW_NUM + 1) * DIVIDING_LINE_SIZE) / TANK_ROW_NUM + .5f));
+        barrelSize = (int) Math.floor(controllerSize * TANK_BARREL_RATIO + .5f);
+        bulletRadius = (barrelSize - 2 * DIVIDING_LINE_SIZE) * .5f;
+        eTankWidth = barrelSize * 2.5f;
+
+        for (int i = 0; i < TANK_ROW_NUM; i++) {
+            eTankLefts[i] = new FloatRingBuffer(DEFAULT_ENTITY_CAPACITY);
+        }
+
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        controllerPosition = DIVIDING_LINE_SIZE;
+
+        enemySpeed = 2;
+        bulletSpeed = 7;
+
+        levelNum = DEFAULT_TANK_MAGIC_TOTAL_NUM;
+        wipeOutNum = 0;
+        overstepNum = 0;
+
+        offsetETankX = 0;
+        offsetMBulletX = 0;
+
+        once = true;
+
+        enemyTankSpace = controllerSize + barrelSize + DEFAULT_ENEMY_TANK_NUM_SPACING;
+        bulletSpace = DEFAULT_BULLET_NUM_SPACING;
+
+        for (int i = 0; i < TANK_ROW_NUM; i++) {
+            eTankLefts[i].clear();
+        }
+
+        mBulletXs.clear();
+        mBulletYs.clear();
+    }
+
+    @Override
+    public void step() {
+        checkSelfTankCrash();
+        if (getStatus() != STATUS_GAME_OVER) {
+            moveEnemyTank();
+            makeBulletPath();
+        }
+    }
+
+    @Override
+    public void renderStatic(GameCanvas canvas) {
+        // Every entity of the game moves
+    }
+
+    @Override
+    public void renderDynamic(GameCanvas canvas, float interpolation) {
+        drawSelfTank(canvas);
+
+        if (isRunning()) {
+            drawEnemyTank(canvas, interpolation);
+            drawBulletPath(canvas, interpolation);
+        }
+    }
+
+    /**
+     * Top coordinate of the enemy tanks on a track
+     *
+     * @param index Track index
+     * @return Top of the tank matrix
+     */
+    private float getTrackTop(int index) {
+        return index * (controllerSize + DIVIDING_LINE_SIZE) + DIVIDING_LINE_SIZE;
+    }
+
+    /**
+     * Fire and move bullets for one simulation step
+     */
+    private void makeBulletPath() {
+        offsetMBulletX += bulletSpeed;
+        if (offsetMBulletX / bulletSpace == 1) {
+            offsetMBulletX = 0;
+        }
+
+        if (offsetMBulletX == 0) {
+            addBullet(screenWidth - controllerSize - barrelSize, (int) (controllerPosition + controllerSize * .5f));
+        }
+
+        boolean isOversetp = false;
+        for (int i = 0; i < mBulletXs.size(); ) {
+            int x = (int) mBulletXs.get(i);
+            int y = (int) mBulletYs.get(i);
+            if (checkWipeOutETank(x, y)) { // The bullet is used up
+                mBulletXs.removeAt(i);
+                mBulletYs.removeAt(i);
+                continue;
+            }
+            if (x + bulletRadius <= 0) {
+                isOversetp = true;
+            }
+            mBulletXs.set(i, x - bulletSpeed);
+            i++;
+        }
+
+        if (isOversetp) {
+            mBulletXs.poll();
+            mBulletYs.poll();
+        }
+    }
+
+    /**
+     * Draw bullet path
+     *
+     * @param canvas Game canvas
+     * @param alpha  Progress between the last two steps
+     */
+    private void drawBulletPath(GameCanvas canvas, float alpha) {
+        float lag = bulletSpeed * (1.f - alpha);
+        for (int i = 0; i < mBulletXs.size(); i++) {
+            canvas.drawCircle(mBulletXs.get(i) + lag, mBulletYs.get(i), bulletRadius, mModelColor);
+        }
+    }
+
+    /**
+     * Get the track index based on the Y coordinate
+     *
+     * @param y Y coordinate value
+     * @return Track index
+     */
+    private int getTrackIndex(int y) {
+        int index = y / (height / TANK_ROW_NUM);
+        index = index >= TANK_ROW_NUM ? TANK_ROW_NUM - 1 : index;
+        index = index < 0 ? 0 : index;
+        return index;
+    }
+
+    /**
+     * Check if the bullet hits the enemy tank
+     *
+     * @param x X coordinate of the bullet
+     * @param y Y coordinate of the bullet
+     * @return Hit: true, otherwise: false
+     */
+    boolean checkWipeOutETank(int x, int y) {
+        boolean beHit = false;
+        int trackIndex = getTrackIndex(y);
+        if (eTankContains(trackIndex, x, y)) {
+            if (++wipeOutNum == levelNum) {
+                upLevel();
+            }
+            eTankLefts[trackIndex].poll();
+            beHit = true;
+        }
+        return beHit;
+    }
+
+    /**
+     * Upgrade difficulty level
+     */
+    void upLevel() {
+        levelNum += DEFAULT_TANK_MAGIC_TOTAL_NUM;
+        enemySpeed++;
+        bulletSpeed += 2;
+        wipeOutNum = 0;
+
+        if (enemyTankSpace > 12)
+            enemyTankSpace -= 12;
+
+        if (bulletSpace > 30)
+            bulletSpace -= 30;
+    }
+
+    /**
+     * Check if our tank collides with enemy tanks
+     *
+     * @param index  Track index
+     * @param selfX  X coordinate value of our tank
+     * @param selfY  Top or bottom value of our tank matrix
+     * @return true: Collision, otherwise: false
+     */
+    boolean checkTankCrash(int index, float selfX, float selfY) {
+        return eTankContains(index, selfX, selfY);
+    }
+
+    /**
+     * Check if a point lies in the foremost enemy tank of a track
+     *
+     * @param index Track index
+     * @param x     X coordinate of the point
+     * @param y     Y coordinate of the point
+     * @return Inside the tank matrix: true, otherwise (or no tank on the track): false
+     */
+    private boolean eTankContains(int index, float x, float y) {
+        FloatRingBuffer tankLefts = eTankLefts[index];
+        if (tankLefts.isEmpty()) return false;
+
+        float left = tankLefts.peek();
+        float top = getTrackTop(index);
+        return x >= left && x < left + eTankWidth && y >= top && y < top + controllerSize;
+    }
+
+    /**
+     * Check if our tank is hit by an enemy tank, which ends the game
+     */
+    private void checkSelfTankCrash() {
+        boolean isAboveCrash = checkTankCrash(getTrackIndex((int) controllerPosition),
+                screenWidth - controllerSize,
+                controllerPosition);
+        boolean isBelowCrash = checkTankCrash(getTrackIndex((int) (controllerPosition + controllerSize)),
+                screenWidth - controllerSize,
+                controllerPosition + controllerSize);
+
+        if (isAboveCrash || isBelowCrash) {
+            setStatus(STATUS_GAME_OVER);
+        }
+    }
+
+    /**
+     * Draw our tank
+     *
+     * @param canvas Game canvas
+     */
+    private void drawSelfTank(GameCanvas canvas) {
+        canvas.drawRect(screenWidth - controllerSize,
+                controllerPosition,
+                screenWidth,
+                controllerPosition + controllerSize,
+                rModelColor);
+        canvas.drawRect(screenWidth - controllerSize - barrelSize,
+                controllerPosition + (controllerSize - barrelSize) * .5f,
+                screenWidth - controllerSize,
+                controllerPosition + (controllerSize - barrelSize) * .5f + barrelSize,
+                rModelColor);
+    }
+
+    /**
+     * Send out and move enemy tanks on three tracks for one simulation step
+     */
+    private void moveEnemyTank() {
+        offsetETankX += enemySpeed;
+        if (offsetETankX / enemyTankSpace == 1 || once) {
+            offsetETankX = 0;
+            once = false;
+        }
+
+        boolean isOverstep = false;
+        int option = apperanceOption();
+        for (int i = 0; i < TANK_ROW_NUM; i++) {
+            FloatRingBuffer tankLefts = eTankLefts[i];
+
+            if (offsetETankX == 0 && i == option) {
+                tankLefts.offer(-(controllerSize + barrelSize));
+            }
+
+            for (int j = 0; j < tankLefts.size(); j++) {
+                float left = tankLefts.get(j);
+                if (left >= screenWidth) {
+                    isOverstep = true;
+                    if (++overstepNum >= DEFAULT_TANK_MAGIC_TOTAL_NUM) {
+                        setStatus(STATUS_GAME_OVER);
+                        break;
+                    }
+                    continue;
+                }
+                tankLefts.set(j, left + enemySpeed);
+            }
+
+            if (getStatus() == STATUS_GAME_OVER) break;
+            if (isOverstep) {
+                tankLefts.poll();
+                isOverstep = false;
+            }
+        }
+    }
+
+    /**
+     * Draw enemy tanks on three tracks
+     *
+     * @param canvas Game canvas
+     * @param alpha  Progress between the last two steps
+     */
+    private void drawEnemyTank(GameCanvas canvas, float alpha) {
+        float lag = enemySpeed * (1.f - alpha);
+        for (int i = 0; i < TANK_ROW_NUM; i++) {
+            FloatRingBuffer tankLefts = eTankLefts[i];
+            float top = getTrackTop(i);
+            for (int j = 0; j < tankLefts.size(); j++) {
+                float left = tankLefts.get(j);
+                if (left < screenWidth) {
+                    drawTank(canvas, left - lag, top);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draw a single enemy tank
+     *
+     * @param canvas Game canvas
+     * @param left   Left coordinate the tank is drawn at
+     * @param top    Top coordinate of the tank
+     */
+    private void drawTank(GameCanvas canvas, float left, float top) {
+        float right = left + eTankWidth;
+        canvas.drawRect(left, top, right, top + controllerSize, lModelColor);
+        float barrelTop = top + (controllerSize - barrelSize) * .5f;
+        canvas.drawRect(right, barrelTop, right + barrelSize, barrelTop + barrelSize, lModelColor);
+    }
+
+    /**
+     * Put an enemy tank on a track, used to set up benchmark and test scenarios
+     *
+     * @param index Track index
+     * @param left  Left coordinate of the tank
+     */
+    void addEnemyTank(int index, float left) {
+        eTankLefts[index].offer(left);
+    }
+
+    /**
+     * Put a bullet on the screen
+     *
+     * @param x X coordinate of the bullet
+     * @param y Y coordinate of the bullet
+     */
+    void addBullet(int x, int y) {
+        mBulletXs.offer(x);
+        mBulletYs.offer(y);
+    }
+
+    /**
+     * Randomly position a track index
+     *
+     * @return Track index
+     */
+    private int apperanceOption() {
+        return random.nextInt(TANK_ROW_NUM);
+    }
+}
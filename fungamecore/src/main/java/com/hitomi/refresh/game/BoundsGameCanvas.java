@@ -0,0 +1,77 @@
+package com.hitomi.refresh.game;
+
+/**
+ * Game canvas drawing nothing, it only accumulates the bounding box of the drawing commands.
+ * The views use it to invalidate the area covered by the moving entities of a frame.
+ */
+public final class BoundsGameCanvas implements GameCanvas {
+
+    private float left, top, right, bottom;
+
+    private boolean empty = true;
+
+    /**
+     * Forget the commands accumulated so far
+     */
+    public void reset() {
+        empty = true;
+        left = top = right = bottom = 0;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public float getLeft() {
+        return left;
+    }
+
+    public float getTop() {
+        return top;
+    }
+
+    public float getRight() {
+        return right;
+    }
+
+    public float getBottom() {
+        return bottom;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int color) {
+        union(left, top, right, bottom);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int color) {
+        union(cx - radius, cy - radius, cx + radius, cy + radius);
+    }
+
+    /**
+     * Extend the bounds to enclose other bounds
+     */
+    public void union(BoundsGameCanvas other) {
+        if (!other.empty) {
+            union(other.left, other.top, other.right, other.bottom);
+        }
+    }
+
+    /**
+     * Extend the bounds to enclose a rectangle
+     */
+    public void union(float left, float top, float right, float bottom) {
+        if (empty) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            empty = false;
+        } else {
+            this.left = Math.min(this.left, left);
+            this.top = Math.min(this.top, top);
+            this.right = Math.max(this.right, right);
+            this.bottom = Math.max(this.bottom, bottom);
+        }
+    }
+}
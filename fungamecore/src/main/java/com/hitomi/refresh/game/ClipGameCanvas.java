@@ -0,0 +1,94 @@
+package com.hitomi.refresh.game;
+
+/**
+ * Game canvas forwarding to another canvas only the drawing commands that reach a horizontal band,
+ * the commands entirely outside it are dropped. The views clip the game to the band the curtain
+ * leaves uncovered, so hidden entities are never drawn. It counts the commands and the area it forwards.
+ */
+public final class ClipGameCanvas implements GameCanvas {
+
+    private GameCanvas target;
+
+    private float clipTop, clipBottom = Float.MAX_VALUE;
+
+    private int drawnCount, skippedCount;
+
+    private float drawnArea;
+
+    public void setTarget(GameCanvas target) {
+        this.target = target;
+    }
+
+    /**
+     * Only forward the commands overlapping the band between top and bottom
+     * @param top top of the band
+     * @param bottom bottom of the band, not above top for an empty band
+     */
+    public void setClip(float top, float bottom) {
+        clipTop = top;
+        clipBottom = bottom;
+    }
+
+    /**
+     * @return true when the band is empty and every command is dropped
+     */
+    public boolean isClipEmpty() {
+        return clipTop >= clipBottom;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int color) {
+        if (!forward(left, top, right, bottom)) return;
+        target.drawRect(left, top, right, bottom, color);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int color) {
+        if (!forward(cx - radius, cy - radius, cx + radius, cy + radius)) return;
+        target.drawCircle(cx, cy, radius, color);
+    }
+
+    /**
+     * Count a command and decide whether it reaches the band
+     */
+    private boolean forward(float left, float top, float right, float bottom) {
+        if (clipTop >= clipBottom || bottom <= clipTop || top >= clipBottom) {
+            skippedCount++;
+            return false;
+        }
+        drawnCount++;
+        drawnArea += (right - left) * (Math.min(bottom, clipBottom) - Math.max(top, clipTop));
+        return true;
+    }
+
+    /**
+     * @return number of commands forwarded since the last reset
+     */
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+
+    /**
+     * @return number of commands dropped since the last reset
+     */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * @return area inside the band covered by the forwarded commands since the last reset, in square pixels,
+     * a circle counts as its bounding box
+     */
+    public float getDrawnArea() {
+        return drawnArea;
+    }
+
+    /**
+     * Start counting from zero
+     */
+    public void resetCounts() {
+        drawnCount = 0;
+        skippedCount = 0;
+        drawnArea = 0;
+    }
+}
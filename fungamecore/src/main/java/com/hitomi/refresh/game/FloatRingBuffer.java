@@ -0,0 +1,106 @@
+package com.hitomi.refresh.game;
+
+/**
+ * First in first out queue of primitive floats stored in a circular array.
+ * The array only grows when the queue is full and is kept when the queue is cleared,
+ * so a queue that has reached its working size no longer allocates.
+ */
+final class FloatRingBuffer {
+
+    private float[] values;
+
+    /**
+     * Array index of the head element
+     */
+    private int head;
+
+    private int size;
+
+    FloatRingBuffer(int initialCapacity) {
+        values = new float[initialCapacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Add a value at the tail of the queue
+     */
+    void offer(float value) {
+        if (size == values.length) {
+            grow();
+        }
+        values[(head + size) % values.length] = value;
+        size++;
+    }
+
+    /**
+     * Value at the head of the queue
+     */
+    float peek() {
+        checkIndex(0);
+        return values[head];
+    }
+
+    /**
+     * Remove the value at the head of the queue
+     * @return removed value
+     */
+    float poll() {
+        float value = peek();
+        head = (head + 1) % values.length;
+        size--;
+        return value;
+    }
+
+    /**
+     * @param index position from the head of the queue
+     */
+    float get(int index) {
+        checkIndex(index);
+        return values[(head + index) % values.length];
+    }
+
+    void set(int index, float value) {
+        checkIndex(index);
+        values[(head + index) % values.length] = value;
+    }
+
+    /**
+     * Remove the value at the given position, the values behind it move one position forward
+     * @param index position from the head of the queue
+     */
+    void removeAt(int index) {
+        checkIndex(index);
+        for (int i = index; i < size - 1; i++) {
+            values[(head + i) % values.length] = values[(head + i + 1) % values.length];
+        }
+        size--;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        float[] grown = new float[Math.max(values.length * 2, 1)];
+        for (int i = 0; i < size; i++) {
+            grown[i] = values[(head + i) % values.length];
+        }
+        values = grown;
+        head = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.hitomi.refresh.game;
+
+/**
+ * Simulation state of a game played in the pull-to-refresh header, free of any Android type.
+ * Coordinates are in pixels of the game area, whose size follows the screen size.
+ */
+public abstract class FunGame {
+
+    public static final int STATUS_GAME_PREPAR = 0;
+
+    public static final int STATUS_GAME_PLAY = 1;
+
+    public static final int STATUS_GAME_OVER = 2;
+
+    public static final int STATUS_GAME_FINISHED = 3;
+
+    /**
+     * Default width size of dividing line
+     */
+    public static final float DIVIDING_LINE_SIZE = 1.f;
+
+    /**
+     * Ratio of view height to screen height
+     */
+    public static final float VIEW_HEIGHT_RATIO = .161f;
+
+    protected final int screenWidth, screenHeight;
+
+    /**
+     * Size of the game area
+     */
+    protected final int width, height;
+
+    protected float controllerPosition;
+
+    protected int controllerSize;
+
+    /**
+     * Only changed through {@link #setStatus(int)}, the prompt text of the static layer depends on it
+     */
+    private int status = STATUS_GAME_PREPAR;
+
+    protected int lModelColor = 0xFF000000, mModelColor = 0xFF000000, rModelColor = 0xFFA5A5A5;
+
+    /**
+     * Incremented whenever the output of {@link #renderStatic(GameCanvas)} changes
+     */
+    private int staticLayerVersion;
+
+    protected FunGame(int screenWidth, int screenHeight) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        width = screenWidth;
+        height = (int) (screenHeight * VIEW_HEIGHT_RATIO);
+        controllerPosition = DIVIDING_LINE_SIZE;
+    }
+
+    /**
+     * Advance the game by one fixed simulation step, see {@link GameLoop#STEP_NANOS}
+     */
+    public abstract void step();
+
+    /**
+     * Produce the drawing commands of the game for one frame
+     * @param canvas receiver of the drawing commands
+     * @param interpolation progress between the last simulated step and the next one
+     */
+    public void render(GameCanvas canvas, float interpolation) {
+        renderStatic(canvas);
+        renderDynamic(canvas, interpolation);
+    }
+
+    /**
+     * Produce the drawing commands of the entities that stay in place from frame to frame,
+     * the views cache them in a layer until {@link #getStaticLayerVersion()} changes
+     * @param canvas receiver of the drawing commands
+     */
+    public abstract void renderStatic(GameCanvas canvas);
+
+    /**
+     * Produce the drawing commands of the moving entities, drawn over the static layer every frame
+     * @param canvas receiver of the drawing commands
+     * @param interpolation progress between the last simulated step and the next one
+     */
+    public abstract void renderDynamic(GameCanvas canvas, float interpolation);
+
+    /**
+     * Version of the static entities, a different value means the cached static layer is outdated
+     * @return static layer version
+     */
+    public int getStaticLayerVersion() {
+        return staticLayerVersion;
+    }
+
+    /**
+     * Mark the output of {@link #renderStatic(GameCanvas)} as changed
+     */
+    protected void invalidateStaticLayer() {
+        staticLayerVersion++;
+    }
+
+    /**
+     * Put the game back to its initial state
+     */
+    public abstract void reset();
+
+    /**
+     * Whether the game simulation is currently moving
+     * @return true when playing or finished loading, otherwise false
+     */
+    public boolean isRunning() {
+        return status == STATUS_GAME_PLAY || status == STATUS_GAME_FINISHED;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Update current game status, the preparing status resets the game
+     * @param status status code
+     */
+    public void setStatus(int status) {
+        this.status = status;
+        invalidateStaticLayer();
+
+        if (status == STATUS_GAME_PREPAR) {
+            reset();
+        }
+    }
+
+    /**
+     * Move controller (controller object is the right image model in the specific game)
+     * @param distance distance moved
+     */
+    public void moveController(float distance) {
+        float maxDistance = (height - 2 * DIVIDING_LINE_SIZE - controllerSize);
+
+        if (distance > maxDistance) {
+            distance = maxDistance;
+        }
+
+        controllerPosition = distance;
+    }
+
+    public float getControllerPosition() {
+        return controllerPosition;
+    }
+
+    public void setControllerPosition(float controllerPosition) {
+        this.controllerPosition = controllerPosition;
+    }
+
+    public int getControllerSize() {
+        return controllerSize;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Set the colors of the left, middle and right models of the game
+     */
+    public void setModelColors(int lModelColor, int mModelColor, int rModelColor) {
+        this.lModelColor = lModelColor;
+        this.mModelColor = mModelColor;
+        this.rModelColor = rModelColor;
+        invalidateStaticLayer();
+    }
+}
@@ -0,0 +1,27 @@
+package com.hitomi.refresh.game;
+
+/**
+ * Drawing commands produced by a {@link FunGame} for one frame.
+ * The Android views translate them to a Canvas, benchmarks and tests may count or discard them.
+ */
+public interface GameCanvas {
+
+    /**
+     * Draw a filled rectangle
+     * @param left left coordinate
+     * @param top top coordinate
+     * @param right right coordinate
+     * @param bottom bottom coordinate
+     * @param color ARGB color
+     */
+    void drawRect(float left, float top, float right, float bottom, int color);
+
+    /**
+     * Draw a filled circle
+     * @param cx X coordinate of the center
+     * @param cy Y coordinate of the center
+     * @param radius radius
+     * @param color ARGB color
+     */
+    void drawCircle(float cx, float cy, float radius, int color);
+}
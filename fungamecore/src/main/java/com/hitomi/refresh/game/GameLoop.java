@@ -0,0 +1,149 @@
+package com.hitomi.refresh.game;
+
+/**
+ * Fixed timestep simulation clock of a {@link FunGame}.
+ * Frame time is accumulated and consumed in steps of {@link #STEP_NANOS},
+ * the remainder is exposed as an interpolation factor for rendering.
+ * <p>
+ * The loop only receives frames while it is active: the game is running
+ * and the host view is attached, visible, in a focused window and not hidden
+ * behind the collapsed header.
+ */
+public final class GameLoop {
+
+    /**
+     * Starts and stops the frames driving the loop
+     */
+    public interface FrameScheduler {
+        void startFrames();
+
+        void stopFrames();
+    }
+
+    /**
+     * Length of one simulation step, the game speeds are tuned for 60 steps per second
+     */
+    public static final long STEP_NANOS = 1000000000L / 60;
+
+    /**
+     * Maximum number of steps advanced in one frame, the rest of a long stall is dropped
+     */
+    public static final int MAX_STEPS_PER_FRAME = 4;
+
+    private long lastFrameNanos = -1;
+
+    private long accumulatorNanos;
+
+    private float interpolation;
+
+    private final FrameScheduler scheduler;
+
+    private boolean running;
+
+    private boolean attached;
+
+    private boolean visible;
+
+    private boolean windowFocused;
+
+    private boolean exposed = true;
+
+    public GameLoop(FrameScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Advance the clock to the given frame time
+     * @param frameTimeNanos frame time in nanoseconds
+     * @return number of simulation steps to run for this frame
+     */
+    public int advance(long frameTimeNanos) {
+        if (lastFrameNanos < 0) {
+            lastFrameNanos = frameTimeNanos;
+        }
+        long elapsedNanos = frameTimeNanos - lastFrameNanos;
+        lastFrameNanos = frameTimeNanos;
+        if (elapsedNanos > 0) {
+            accumulatorNanos += elapsedNanos;
+        }
+
+        int steps = (int) (accumulatorNanos / STEP_NANOS);
+        if (steps > MAX_STEPS_PER_FRAME) {
+            steps = MAX_STEPS_PER_FRAME;
+            accumulatorNanos = steps * STEP_NANOS + accumulatorNanos % STEP_NANOS;
+        }
+        accumulatorNanos -= steps * STEP_NANOS;
+        interpolation = accumulatorNanos / (float) STEP_NANOS;
+        return steps;
+    }
+
+    /**
+     * Forget the previous frame time, the next frame starts a new timeline
+     */
+    public void reset() {
+        lastFrameNanos = -1;
+        accumulatorNanos = 0;
+        interpolation = 0;
+    }
+
+    /**
+     * Whether frames should be produced at all
+     * @return true when every condition of the loop is met
+     */
+    public boolean isActive() {
+        return running && attached && visible && windowFocused && exposed;
+    }
+
+    public void setRunning(boolean running) {
+        boolean wasActive = isActive();
+        this.running = running;
+        onActiveChanged(wasActive);
+    }
+
+    public void setAttached(boolean attached) {
+        boolean wasActive = isActive();
+        this.attached = attached;
+        onActiveChanged(wasActive);
+    }
+
+    public void setVisible(boolean visible) {
+        boolean wasActive = isActive();
+        this.visible = visible;
+        onActiveChanged(wasActive);
+    }
+
+    public void setWindowFocused(boolean windowFocused) {
+        boolean wasActive = isActive();
+        this.windowFocused = windowFocused;
+        onActiveChanged(wasActive);
+    }
+
+    public void setExposed(boolean exposed) {
+        boolean wasActive = isActive();
+        this.exposed = exposed;
+        onActiveChanged(wasActive);
+    }
+
+    /**
+     * Start or stop the frames when the active state changes, the clock restarts
+     * on activation so the time spent paused is not simulated afterwards
+     * @param wasActive active state before the change
+     */
+    private void onActiveChanged(boolean wasActive) {
+        boolean active = isActive();
+        if (!wasActive && active) {
+            reset();
+            scheduler.startFrames();
+        } else if (wasActive && !active) {
+            scheduler.stopFrames();
+        }
+    }
+
+    /**
+     * Get the progress between the last simulated step and the next one
+     * @return value in [0, 1)
+     */
+    public float getInterpolation() {
+        return interpolation;
+    }
+}
@@ -0,0 +1,357 @@
+package com.hitomi.refresh.game;
+
+import java.util.Arrays;
+
+/**
+ * Hit block game: a ball bounces between the racket and the rectangular blocks,
+ * every block it touches is destroyed, missing the ball ends the game.
+ */
+public class HitBlockGame extends FunGame {
+
+    /**
+     * Default number of rectangular blocks arranged vertically
+     */
+    static final int BLOCK_VERTICAL_NUM = 5;
+
+    /**
+     * Default number of rectangular blocks arranged horizontally
+     */
+    public static final int DEFAULT_BLOCK_HORIZONTAL_NUM = 3;
+
+    /**
+     * Height of the rectangular block as a ratio of the screen height
+     */
+    private static final float BLOCK_HEIGHT_RATIO = .03125f;
+
+    /**
+     * Width of the rectangular block as a ratio of the screen width
+     */
+    private static final float BLOCK_WIDTH_RATIO = .01806f;
+
+    /**
+     * Position of the racket as a ratio of the screen width
+     */
+    private static final float RACKET_POSITION_RATIO = .8f;
+
+    /**
+     * Position of the rectangular block as a ratio of the screen width
+     */
+    private static final float BLOCK_POSITION_RATIO = .08f;
+
+    /**
+     * Default initial bounce angle of the ball
+     */
+    private static final int DEFAULT_ANGLE = 30;
+
+    /**
+     * Default ball movement speed, in pixels per simulation step
+     */
+    public static final int DEFAULT_SPEED = 6;
+
+    /**
+     * Ball radius
+     */
+    private static final float BALL_RADIUS = 8.f;
+
+    /**
+     * Height and width of the rectangular block
+     */
+    private float blockHeight, blockWidth;
+
+    private float blockLeft, racketLeft;
+
+    private float cx, cy;
+
+    /**
+     * Ball position before the last simulation step, used for interpolated drawing
+     */
+    private float prevCx, prevCy;
+
+    /**
+     * Destroyed blocks, the bit at index (row * blockHorizontalNum + column) is set once the block is hit
+     */
+    private long[] destroyedBlocks;
+
+    private int remainingBlockNum;
+
+    /**
+     * Color of the blocks of each column, fading from the left model color to white
+     */
+    private int[] blockColors;
+
+    private boolean isleft;
+
+    private int angle;
+
+    private int blockHorizontalNum = DEFAULT_BLOCK_HORIZONTAL_NUM;
+
+    private int speed = DEFAULT_SPEED;
+
+    public HitBlockGame(int screenWidth, int screenHeight) {
+        super(screenWidth, screenHeight);
+
+        blockHeight = screenHeight * BLOCK_HEIGHT_RATIO;
+        blockWidth = screenWidth * BLOCK_WIDTH_RATIO;
+
+        blockLeft = screenWidth * BLOCK_POSITION_RATIO;
+        racketLeft = screenWidth * RACKET_POSITION_RATIO;
+
+        controllerSize = (int) (blockHeight * 1.6f);
+
+        updateBlockColors();
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        cx = racketLeft - 2 * BALL_RADIUS;
+        cy = (int) (height * .5f);
+        prevCx = cx;
+        prevCy = cy;
+
+        controllerPosition = DIVIDING_LINE_SIZE;
+
+        angle = DEFAULT_ANGLE;
+
+        isleft = true;
+
+        resetBlocks();
+    }
+
+    /**
+     * Restore every rectangular block, the bitset is only reallocated when the grid grows
+     */
+    private void resetBlocks() {
+        int blockNum = blockHorizontalNum * BLOCK_VERTICAL_NUM;
+        int wordNum = (blockNum + 63) >>> 6;
+        if (destroyedBlocks == null || destroyedBlocks.length < wordNum) {
+            destroyedBlocks = new long[wordNum];
+        } else {
+            Arrays.fill(destroyedBlocks, 0L);
+        }
+        remainingBlockNum = blockNum;
+        invalidateStaticLayer();
+    }
+
+    @Override
+    public void step() {
+        makeBallPath();
+    }
+
+    @Override
+    public void renderStatic(GameCanvas canvas) {
+        drawColorBlock(canvas);
+    }
+
+    @Override
+    public void renderDynamic(GameCanvas canvas, float interpolation) {
+        drawRacket(canvas);
+
+        if (isRunning())
+            drawBall(canvas, interpolation);
+    }
+
+    public void setBlockHorizontalNum(int blockHorizontalNum) {
+        this.blockHorizontalNum = blockHorizontalNum;
+        resetBlocks();
+        updateBlockColors();
+    }
+
+    public int getBlockHorizontalNum() {
+        return blockHorizontalNum;
+    }
+
+    @Override
+    public void setModelColors(int lModelColor, int mModelColor, int rModelColor) {
+        super.setModelColors(lModelColor, mModelColor, rModelColor);
+        updateBlockColors();
+    }
+
+    /**
+     * Compute the block color of every column, so drawing a frame does no color math
+     */
+    private void updateBlockColors() {
+        if (blockColors == null || blockColors.length < blockHorizontalNum) {
+            blockColors = new int[blockHorizontalNum];
+        }
+        int redCode, greenCode, blueCode;
+        for (int column = 0; column < blockHorizontalNum; column++) {
+            redCode = 255 - (255 - ((lModelColor >> 16) & 0xFF)) / (column + 1);
+            greenCode = 255 - (255 - ((lModelColor >> 8) & 0xFF)) / (column + 1);
+            blueCode = 255 - (255 - (lModelColor & 0xFF)) / (column + 1);
+            blockColors[column] = 0xFF000000 | (redCode << 16) | (greenCode << 8) | blueCode;
+        }
+        invalidateStaticLayer();
+    }
+
+    public void setSpeed(int speed) {
+        this.speed = speed;
+    }
+
+    /**
+     * Draw the racket
+     * @param canvas The game canvas
+     */
+    private void drawRacket(GameCanvas canvas) {
+        canvas.drawRect(racketLeft, controllerPosition, racketLeft + blockWidth, controllerPosition + controllerSize, rModelColor);
+    }
+
+    /**
+     * Handle the trajectory of the ball for one simulation step
+     */
+    private void makeBallPath() {
+        prevCx = cx;
+        prevCy = cy;
+
+        if (cx <= blockLeft + blockHorizontalNum * blockWidth + (blockHorizontalNum - 1) * DIVIDING_LINE_SIZE + BALL_RADIUS) { // The ball enters the color block area
+            if (checkTouchBlock(cx, cy)) { // Bounce back
+                isleft = false;
+            }
+        }
+        if (cx <= blockLeft + BALL_RADIUS) { // The ball passes through the color block area
+            isleft = false;
+        }
+
+        if (cx + BALL_RADIUS >= racketLeft && cx - BALL_RADIUS < racketLeft + blockWidth) { // The current X coordinate of the ball is within the X value range of the racket
+            if (checkTouchRacket(cy)) { // The ball touches the racket
+                if (remainingBlockNum == 0) { // All rectangular blocks are eliminated, the game is over
+                    setStatus(STATUS_GAME_OVER);
+                    return;
+                }
+                isleft = true;
+            }
+        } else if (cx > width) { // The ball goes beyond the racket area
+            setStatus(STATUS_GAME_OVER);
+        }
+
+        if (cy <= BALL_RADIUS + DIVIDING_LINE_SIZE) { // The ball hits the top boundary
+            angle = 180 - DEFAULT_ANGLE;
+        } else if (cy >= height - BALL_RADIUS - DIVIDING_LINE_SIZE) { // The ball hits the bottom boundary
+            angle = 180 + DEFAULT_ANGLE;
+        }
+
+        if (isleft) {
+            cx -= speed;
+        } else {
+            cx += speed;
+        }
+        cy -= (float) Math.tan(Math.toRadians(angle)) * speed;
+    }
+
+    /**
+     * Draw the ball between its last two simulated positions
+     * @param canvas The game canvas
+     * @param alpha progress between the last two steps
+     */
+    private void drawBall(GameCanvas canvas, float alpha) {
+        canvas.drawCircle(prevCx + (cx - prevCx) * alpha, prevCy + (cy - prevCy) * alpha, BALL_RADIUS, mModelColor);
+    }
+
+    /**
+     * Check if the ball hits the racket
+     * @param y The current Y coordinate of the ball
+     * @return The ball is within the Y value range of the racket: true, otherwise: false
+     */
+    boolean checkTouchRacket(float y) {
+        boolean flag = false;
+        float diffVal = y - controllerPosition;
+        if (diffVal >= 0 && diffVal <= controllerSize) { // The ball is within the Y value range of the racket
+            flag = true;
+        }
+        return flag;
+    }
+
+    /**
+     * Check if the ball hits a rectangular block
+     * @param x The X coordinate of the ball
+     * @param y The Y coordinate of the ball
+     * @return Hit an intact block: true, otherwise (destroyed block or outside the grid): false
+     */
+    boolean checkTouchBlock(float x, float y) {
+        int columnX = (int) ((x - blockLeft - BALL_RADIUS - speed) / blockWidth);
+        columnX = columnX == blockHorizontalNum ? columnX - 1 : columnX;
+        int rowY = (int) (y / blockHeight);
+        rowY = rowY == BLOCK_VERTICAL_NUM ? rowY - 1 : rowY;
+        if (columnX < 0 || columnX >= blockHorizontalNum || rowY < 0 || rowY >= BLOCK_VERTICAL_NUM) {
+            return false;
+        }
+
+        int index = rowY * blockHorizontalNum + columnX;
+        if (isBlockDestroyed(index)) {
+            return false;
+        }
+        destroyedBlocks[index >>> 6] |= 1L << index;
+        remainingBlockNum--;
+        invalidateStaticLayer();
+        return true;
+    }
+
+    private boolean isBlockDestroyed(int index) {
+        return (destroyedBlocks[index >>> 6] & (1L << index)) != 0;
+    }
+
+    int getRemainingBlockNum() {
+        return remainingBlockNum;
+    }
+
+    /**
+     * Mark a block as destroyed, used to set up benchmark and test scenarios
+     * @param column column of the block
+     * @param row row of the block
+     */
+    void destroyBlock(int column, int row) {
+        checkTouchBlock(getBallXForColumn(column), getBallYForRow(row));
+    }
+
+    /**
+     * Make a destroyed block intact again, used to set up benchmark scenarios
+     * @param column column of the block
+     * @param row row of the block
+     */
+    void restoreBlock(int column, int row) {
+        int index = row * blockHorizontalNum + column;
+        if (!isBlockDestroyed(index)) return;
+
+        destroyedBlocks[index >>> 6] &= ~(1L << index);
+        remainingBlockNum++;
+        invalidateStaticLayer();
+    }
+
+    /**
+     * X coordinate of the ball that {@link #checkTouchBlock} maps to the given column
+     */
+    float getBallXForColumn(int column) {
+        return blockLeft + BALL_RADIUS + speed + (column + .5f) * blockWidth;
+    }
+
+    /**
+     * Y coordinate of the ball that {@link #checkTouchBlock} maps to the given row
+     */
+    float getBallYForRow(int row) {
+        return (row + .5f) * blockHeight;
+    }
+
+    float getBallY() {
+        return cy;
+    }
+
+    /**
+     * Draw the rectangular color block
+     * @param canvas The game canvas
+     */
+    private void drawColorBlock(GameCanvas canvas) {
+        float left, top;
+        int column, row;
+        for (int i = 0; i < blockHorizontalNum * BLOCK_VERTICAL_NUM; i++) {
+            if (isBlockDestroyed(i)) {
+                continue;
+            }
+            row = i / blockHorizontalNum;
+            column = i % blockHorizontalNum;
+
+            left = blockLeft + column * (blockWidth + DIVIDING_LINE_SIZE);
+            top = DIVIDING_LINE_SIZE + row * (blockHeight + DIVIDING_LINE_SIZE);
+            canvas.drawRect(left, top, left + blockWidth, top + blockHeight, blockColors[column]);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.hitomi.refresh.game;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Missed tank bookkeeping of the battle city game.
+ */
+public class BattleCityGameTest {
+
+    /**
+     * Track away from our tank, which starts on the first one
+     */
+    private static final int FREE_TRACK = BattleCityGame.TANK_ROW_NUM - 1;
+
+    private BattleCityGame game;
+
+    @Before
+    public void setUp() {
+        game = new BattleCityGame(1080, 1920, new Random(42));
+        game.setStatus(FunGame.STATUS_GAME_PLAY);
+    }
+
+    @Test
+    public void missedTanksEndTheGame() {
+        int steps = 0;
+        while (game.isRunning()) {
+            missOneTank();
+            assertTrue(++steps < 100);
+        }
+        assertEquals(FunGame.STATUS_GAME_OVER, game.getStatus());
+    }
+
+    @Test
+    public void gameOverOutdatesTheStaticLayer() {
+        int version;
+        do {
+            version = game.getStaticLayerVersion();
+            missOneTank();
+        } while (game.isRunning());
+
+        // The prompt text changes to the game over text
+        assertNotEquals(version, game.getStaticLayerVersion());
+    }
+
+    @Test
+    public void restartedGameForgetsMissedTanks() {
+        while (game.isRunning()) {
+            missOneTank();
+        }
+
+        game.setStatus(FunGame.STATUS_GAME_PREPAR);
+        game.setStatus(FunGame.STATUS_GAME_PLAY);
+        missOneTank();
+        assertTrue(game.isRunning());
+    }
+
+    /**
+     * Let a tank leave the screen within one simulation step
+     */
+    private void missOneTank() {
+        game.addEnemyTank(FREE_TRACK, game.screenWidth);
+        game.step();
+    }
+}
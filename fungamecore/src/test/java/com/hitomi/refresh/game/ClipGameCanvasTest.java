@@ -0,0 +1,88 @@
+package com.hitomi.refresh.game;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Draw calls reaching the target canvas while the curtain covers part or all of the game.
+ */
+public class ClipGameCanvasTest {
+
+    private HitBlockGame game;
+
+    private CountingGameCanvas target;
+
+    private ClipGameCanvas clipCanvas;
+
+    @Before
+    public void setUp() {
+        game = new HitBlockGame(1080, 1920);
+        game.setStatus(FunGame.STATUS_GAME_PLAY);
+        target = new CountingGameCanvas();
+        clipCanvas = new ClipGameCanvas();
+        clipCanvas.setTarget(target);
+    }
+
+    @Test
+    public void closedCurtainDrawsNothing() {
+        clipCanvas.setClip(game.height * .5f, game.height * .5f);
+        game.render(clipCanvas, 1);
+
+        assertTrue(clipCanvas.isClipEmpty());
+        assertEquals(0, target.drawCount);
+        assertEquals(0, clipCanvas.getDrawnCount());
+        assertEquals(0, clipCanvas.getDrawnArea(), 0);
+        assertTrue(clipCanvas.getSkippedCount() > 0);
+    }
+
+    @Test
+    public void openCurtainDrawsEverything() {
+        CountingGameCanvas unclipped = new CountingGameCanvas();
+        game.render(unclipped, 1);
+
+        clipCanvas.setClip(0, game.height);
+        game.render(clipCanvas, 1);
+
+        assertEquals(unclipped.drawCount, target.drawCount);
+        assertEquals(0, clipCanvas.getSkippedCount());
+    }
+
+    @Test
+    public void halfOpenCurtainOnlyDrawsTheUncoveredBand() {
+        CountingGameCanvas unclipped = new CountingGameCanvas();
+        game.render(unclipped, 1);
+
+        float top = game.height * .25f, bottom = game.height * .75f;
+        clipCanvas.setClip(top, bottom);
+        game.render(clipCanvas, 1);
+
+        assertTrue(target.drawCount > 0);
+        assertTrue(target.drawCount < unclipped.drawCount);
+        assertEquals(unclipped.drawCount, clipCanvas.getDrawnCount() + clipCanvas.getSkippedCount());
+        assertTrue(clipCanvas.getDrawnArea() <= game.width * (bottom - top));
+
+        clipCanvas.resetCounts();
+        assertEquals(0, clipCanvas.getDrawnCount());
+        assertEquals(0, clipCanvas.getSkippedCount());
+    }
+
+    /**
+     * Counts the commands it receives
+     */
+    private static final class CountingGameCanvas implements GameCanvas {
+
+        int drawCount;
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, int color) {
+            drawCount++;
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, int color) {
+            drawCount++;
+        }
+    }
+}
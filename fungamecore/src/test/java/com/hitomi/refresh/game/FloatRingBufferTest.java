@@ -0,0 +1,77 @@
+package com.hitomi.refresh.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Queue operations of the ring buffer backing the battle city entities, across the wrap of the array.
+ */
+public class FloatRingBufferTest {
+
+    @Test
+    public void keepsFirstInFirstOutOrderAcrossTheWrap() {
+        FloatRingBuffer buffer = new FloatRingBuffer(4);
+        for (int i = 0; i < 3; i++) {
+            buffer.offer(i);
+        }
+        assertEquals(0f, buffer.poll(), 0f);
+        assertEquals(1f, buffer.poll(), 0f);
+        buffer.offer(3);
+        buffer.offer(4);
+        buffer.offer(5);
+
+        assertEquals(4, buffer.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i + 2f, buffer.get(i), 0f);
+        }
+    }
+
+    @Test
+    public void growsWhenFull() {
+        FloatRingBuffer buffer = new FloatRingBuffer(2);
+        buffer.offer(0);
+        buffer.offer(1);
+        buffer.poll();
+        for (int i = 2; i < 10; i++) {
+            buffer.offer(i);
+        }
+
+        assertEquals(9, buffer.size());
+        assertEquals(1f, buffer.peek(), 0f);
+        assertEquals(9f, buffer.get(8), 0f);
+    }
+
+    @Test
+    public void removeAtShiftsTheTail() {
+        FloatRingBuffer buffer = new FloatRingBuffer(4);
+        buffer.offer(0);
+        buffer.poll();
+        for (int i = 1; i <= 4; i++) {
+            buffer.offer(i);
+        }
+        buffer.removeAt(1);
+
+        assertEquals(3, buffer.size());
+        assertEquals(1f, buffer.get(0), 0f);
+        assertEquals(3f, buffer.get(1), 0f);
+        assertEquals(4f, buffer.get(2), 0f);
+    }
+
+    @Test
+    public void clearKeepsTheBufferUsable() {
+        FloatRingBuffer buffer = new FloatRingBuffer(2);
+        buffer.offer(1);
+        buffer.offer(2);
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        buffer.offer(3);
+        assertEquals(3f, buffer.peek(), 0f);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void pollOnEmptyBufferThrows() {
+        new FloatRingBuffer(2).poll();
+    }
+}
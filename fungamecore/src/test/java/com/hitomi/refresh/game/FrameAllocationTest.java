@@ -0,0 +1,88 @@
+package com.hitomi.refresh.game;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Steady-state frames of both games must not allocate: garbage created per frame
+ * ends up as collector pauses on the thread that draws the header.
+ */
+public class FrameAllocationTest {
+
+    private static final int WARMUP_FRAMES = 20000;
+
+    private static final int MEASURED_FRAMES = 20000;
+
+    /**
+     * Room for the few small objects the JIT may allocate once while it recompiles the frame code.
+     * An object allocated every frame adds up to 20000 times its size, and a single buffer of a few
+     * hundred bytes already fails the test
+     */
+    private static final long MAX_ALLOCATED_BYTES = 256;
+
+    /**
+     * Canvas discarding the drawing commands
+     */
+    private static final GameCanvas NO_OP_CANVAS = new GameCanvas() {
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, int color) {
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, int color) {
+        }
+    };
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void hitBlockFramesDoNotAllocate() {
+        HitBlockGame game = new HitBlockGame(1080, 1920);
+        game.setBlockHorizontalNum(8);
+        long allocated = allocatedBytes(game);
+        assertTrue(allocated + " bytes allocated", allocated < MAX_ALLOCATED_BYTES);
+    }
+
+    @Test
+    public void battleCityFramesDoNotAllocate() {
+        BattleCityGame game = new BattleCityGame(1080, 1920, new Random(1));
+        long allocated = allocatedBytes(game);
+        assertTrue(allocated + " bytes allocated", allocated < MAX_ALLOCATED_BYTES);
+    }
+
+    /**
+     * Total bytes allocated by the measured frames, after the warmup has let the JIT settle
+     */
+    private long allocatedBytes(FunGame game) {
+        long threadId = Thread.currentThread().getId();
+        runFrames(game, WARMUP_FRAMES);
+
+        // Reading the counter may allocate itself, measure it to leave it out
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        long overhead = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        before = threadMXBean.getThreadAllocatedBytes(threadId);
+        runFrames(game, MEASURED_FRAMES);
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before - overhead;
+    }
+
+    /**
+     * Step, move the controller and render like the game view does, restarting finished games
+     */
+    private void runFrames(FunGame game, int frames) {
+        for (int i = 0; i < frames; i++) {
+            if (!game.isRunning()) {
+                game.setStatus(FunGame.STATUS_GAME_PREPAR);
+                game.setStatus(FunGame.STATUS_GAME_PLAY);
+            }
+            game.moveController((i % 120) * 2.f);
+            game.step();
+            game.render(NO_OP_CANVAS, .5f);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.hitomi.refresh.game;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Lifecycle of the game loop, frames must only be delivered while the game can be seen.
+ */
+public class GameLoopTest {
+
+    /**
+     * Whether the loop is registered for vsync frames
+     */
+    private boolean framePending;
+
+    private int deliveredFrames;
+
+    private GameLoop gameLoop;
+
+    @Before
+    public void setUp() {
+        framePending = false;
+        deliveredFrames = 0;
+        gameLoop = new GameLoop(new GameLoop.FrameScheduler() {
+            @Override
+            public void startFrames() {
+                framePending = true;
+            }
+
+            @Override
+            public void stopFrames() {
+                framePending = false;
+            }
+        });
+        gameLoop.setAttached(true);
+        gameLoop.setVisible(true);
+        gameLoop.setWindowFocused(true);
+        gameLoop.setExposed(true);
+    }
+
+    private void runVsyncs(int count) {
+        for (int i = 0; i < count; i++) {
+            if (framePending) {
+                deliveredFrames++;
+            }
+        }
+    }
+
+    @Test
+    public void framesWhilePlaying() {
+        gameLoop.setRunning(true);
+        assertTrue(gameLoop.isActive());
+
+        runVsyncs(10);
+        assertEquals(10, deliveredFrames);
+    }
+
+    @Test
+    public void noFramesOnceHeaderIsCollapsed() {
+        gameLoop.setRunning(true);
+        runVsyncs(10);
+
+        gameLoop.setExposed(false);
+        deliveredFrames = 0;
+        runVsyncs(100);
+
+        assertFalse(gameLoop.isActive());
+        assertFalse(framePending);
+        assertEquals(0, deliveredFrames);
+    }
+
+    @Test
+    public void noFramesWhenDetachedHiddenOrUnfocused() {
+        gameLoop.setRunning(true);
+
+        gameLoop.setAttached(false);
+        deliveredFrames = 0;
+        runVsyncs(10);
+        assertEquals(0, deliveredFrames);
+
+        gameLoop.setAttached(true);
+        gameLoop.setVisible(false);
+        deliveredFrames = 0;
+        runVsyncs(10);
+        assertEquals(0, deliveredFrames);
+
+        gameLoop.setVisible(true);
+        gameLoop.setWindowFocused(false);
+        deliveredFrames = 0;
+        runVsyncs(10);
+        assertEquals(0, deliveredFrames);
+    }
+
+    @Test
+    public void noFramesWhenGameStopped() {
+        runVsyncs(10);
+        assertEquals(0, deliveredFrames);
+
+        gameLoop.setRunning(true);
+        gameLoop.setRunning(false);
+        runVsyncs(10);
+        assertEquals(0, deliveredFrames);
+    }
+
+    @Test
+    public void resumeRestartsClockWithoutCatchUp() {
+        gameLoop.setRunning(true);
+        gameLoop.advance(0);
+        assertEquals(1, gameLoop.advance(GameLoop.STEP_NANOS));
+
+        gameLoop.setExposed(false);
+        gameLoop.setExposed(true);
+
+        assertTrue(framePending);
+        assertEquals(0, gameLoop.advance(GameLoop.STEP_NANOS * 600));
+        assertEquals(2, gameLoop.advance(GameLoop.STEP_NANOS * 602));
+    }
+
+    @Test
+    public void longStallIsBounded() {
+        gameLoop.advance(0);
+        assertEquals(GameLoop.MAX_STEPS_PER_FRAME, gameLoop.advance(GameLoop.STEP_NANOS * 100));
+        assertEquals(0, gameLoop.advance(GameLoop.STEP_NANOS * 100));
+    }
+}
@@ -0,0 +1,94 @@
+package com.hitomi.refresh.game;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Destroyed block bookkeeping of the hit block game.
+ */
+public class HitBlockGameTest {
+
+    private HitBlockGame game;
+
+    @Before
+    public void setUp() {
+        game = new HitBlockGame(1080, 1920);
+        game.setBlockHorizontalNum(20);
+    }
+
+    @Test
+    public void blockIsOnlyHitOnce() {
+        float x = game.getBallXForColumn(19);
+        float y = game.getBallYForRow(4);
+
+        assertTrue(game.checkTouchBlock(x, y));
+        assertFalse(game.checkTouchBlock(x, y));
+        assertEquals(20 * HitBlockGame.BLOCK_VERTICAL_NUM - 1, game.getRemainingBlockNum());
+    }
+
+    @Test
+    public void hitOutsideTheGridIsIgnored() {
+        assertFalse(game.checkTouchBlock(game.getBallXForColumn(-2), game.getBallYForRow(0)));
+        assertFalse(game.checkTouchBlock(game.getBallXForColumn(0), game.getBallYForRow(HitBlockGame.BLOCK_VERTICAL_NUM + 1)));
+        assertEquals(20 * HitBlockGame.BLOCK_VERTICAL_NUM, game.getRemainingBlockNum());
+    }
+
+    @Test
+    public void destroyingEveryBlockLeavesNoneRemaining() {
+        for (int row = 0; row < HitBlockGame.BLOCK_VERTICAL_NUM; row++) {
+            for (int column = 0; column < 20; column++) {
+                game.destroyBlock(column, row);
+            }
+        }
+        assertEquals(0, game.getRemainingBlockNum());
+
+        game.reset();
+        assertEquals(20 * HitBlockGame.BLOCK_VERTICAL_NUM, game.getRemainingBlockNum());
+        assertTrue(game.checkTouchBlock(game.getBallXForColumn(7), game.getBallYForRow(2)));
+    }
+
+    @Test
+    public void onlyDestroyedBlocksOutdateTheStaticLayer() {
+        game.setStatus(FunGame.STATUS_GAME_PLAY);
+        int version = game.getStaticLayerVersion();
+
+        for (int i = 0; i < 10; i++) {
+            game.moveController(i * 10);
+            game.step();
+        }
+        assertEquals(version, game.getStaticLayerVersion());
+
+        game.destroyBlock(3, 3);
+        assertNotEquals(version, game.getStaticLayerVersion());
+    }
+
+    @Test
+    public void gameOverOutdatesTheStaticLayer() {
+        game.setStatus(FunGame.STATUS_GAME_PLAY);
+        game.moveController(game.height); // Out of the way of the ball
+
+        int version;
+        int steps = 0;
+        do {
+            version = game.getStaticLayerVersion();
+            game.step();
+            assertTrue(++steps < 10000);
+        } while (game.isRunning());
+
+        // The prompt text changes to the game over text
+        assertEquals(FunGame.STATUS_GAME_OVER, game.getStatus());
+        assertNotEquals(version, game.getStaticLayerVersion());
+    }
+
+    @Test
+    public void dynamicBoundsLeaveTheBlocksOut() {
+        game.setStatus(FunGame.STATUS_GAME_PLAY);
+        BoundsGameCanvas bounds = new BoundsGameCanvas();
+        game.renderDynamic(bounds, 1.f);
+
+        assertFalse(bounds.isEmpty());
+        assertTrue(bounds.getLeft() > game.getBallXForColumn(19));
+    }
+}
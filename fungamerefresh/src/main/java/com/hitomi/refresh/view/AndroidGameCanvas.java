@@ -0,0 +1,37 @@
+package com.hitomi.refresh.view;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import com.hitomi.refresh.game.GameCanvas;
+
+/**
+ * Forwards the drawing commands of a game to an Android Canvas
+ */
+final class AndroidGameCanvas implements GameCanvas {
+
+    private final Paint paint;
+
+    private Canvas canvas;
+
+    AndroidGameCanvas() {
+        paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setStyle(Paint.Style.FILL);
+    }
+
+    void setCanvas(Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int color) {
+        paint.setColor(color);
+        canvas.drawRect(left, top, right, bottom, paint);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int color) {
+        paint.setColor(color);
+        canvas.drawCircle(cx, cy, radius, paint);
+    }
+}
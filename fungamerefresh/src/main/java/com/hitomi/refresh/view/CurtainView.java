@@ -0,0 +1,166 @@
+package com.hitomi.refresh.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * Curtain covering the game until the refresh starts: a shade over the whole game and two white
+ * halves holding the prompt texts. Everything is drawn by this one view from a single progress
+ * value, 0 when the curtain is closed and 1 when it is fully open.
+ */
+class CurtainView extends View {
+
+    private static final int SHADE_COLOR = Color.parseColor("#3A3A3A");
+
+    private final Paint shadePaint = new Paint();
+
+    private final Paint curtainPaint = new Paint();
+
+    private final TextPaint topTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+
+    private final TextPaint bottomTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+
+    private String topText, bottomText;
+
+    /**
+     * Text layouts of the two halves, built on the first draw after the text or the width changed
+     */
+    private StaticLayout topLayout, bottomLayout;
+
+    private float progress;
+
+    CurtainView(Context context, String topText, int topTextSize, String bottomText, int bottomTextSize) {
+        super(context);
+        this.topText = topText;
+        this.bottomText = bottomText;
+
+        shadePaint.setColor(SHADE_COLOR);
+        curtainPaint.setColor(Color.WHITE);
+        initTextPaint(topTextPaint, topTextSize);
+        initTextPaint(bottomTextPaint, bottomTextSize);
+    }
+
+    private void initTextPaint(TextPaint textPaint, int textSizeSp) {
+        textPaint.setColor(Color.BLACK);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, textSizeSp,
+                getResources().getDisplayMetrics()));
+    }
+
+    /**
+     * @param progress 0 for a closed curtain, 1 for an open one
+     */
+    void setProgress(float progress) {
+        if (this.progress == progress) return;
+
+        this.progress = progress;
+        // An open curtain is not drawn at all, hiding it does not need a new layout pass
+        setVisibility(progress >= 1 ? INVISIBLE : VISIBLE);
+        invalidate();
+    }
+
+    float getProgress() {
+        return progress;
+    }
+
+    /**
+     * @return top of the gap between the two curtain halves, the game shows through it
+     */
+    float getGapTop() {
+        if (progress >= 1) return 0;
+        return getGapCenter() - getGapHalfHeight();
+    }
+
+    /**
+     * @return bottom of the gap between the two curtain halves, equal to its top while the curtain is closed
+     */
+    float getGapBottom() {
+        if (progress >= 1) return Float.MAX_VALUE;
+        return getGapCenter() + getGapHalfHeight();
+    }
+
+    private float getGapCenter() {
+        return getHeight() * .5f;
+    }
+
+    private float getGapHalfHeight() {
+        return (getHeight() * .5f - FunGameView.DIVIDING_LINE_SIZE) * progress;
+    }
+
+    void setTopText(String topText) {
+        this.topText = topText;
+        topLayout = null;
+        invalidate();
+    }
+
+    void setBottomText(String bottomText) {
+        this.bottomText = bottomText;
+        bottomLayout = null;
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // Matches the game it covers, it adds nothing to the size of a wrapping header
+        setMeasuredDimension(resolveSize(0, widthMeasureSpec), resolveSize(0, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (w != oldw) {
+            topLayout = null;
+            bottomLayout = null;
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        int width = getWidth();
+        if (width == 0) return;
+
+        // The curtain covers the game between its dividing lines
+        float top = FunGameView.DIVIDING_LINE_SIZE;
+        float bottom = getHeight() - FunGameView.DIVIDING_LINE_SIZE;
+        float half = (bottom - top) * .5f;
+        float offset = half * progress;
+
+        int saveCount = canvas.save();
+        canvas.clipRect(0, top, width, bottom);
+
+        shadePaint.setAlpha((int) (255 * (1 - progress)));
+        canvas.drawRect(0, top, width, bottom, shadePaint);
+
+        float topHalfBottom = top + half - offset;
+        canvas.drawRect(0, top - offset, width, topHalfBottom, curtainPaint);
+        if (topLayout == null) {
+            topLayout = createTextLayout(topText, topTextPaint, width);
+        }
+        drawTextLayout(canvas, topLayout, topHalfBottom - topLayout.getHeight());
+
+        float bottomHalfTop = top + half + offset;
+        canvas.drawRect(0, bottomHalfTop, width, bottom + offset, curtainPaint);
+        if (bottomLayout == null) {
+            bottomLayout = createTextLayout(bottomText, bottomTextPaint, width);
+        }
+        drawTextLayout(canvas, bottomLayout, bottomHalfTop);
+
+        canvas.restoreToCount(saveCount);
+    }
+
+    private StaticLayout createTextLayout(String text, TextPaint textPaint, int width) {
+        return new StaticLayout(text == null ? "" : text, textPaint, width, Layout.Alignment.ALIGN_CENTER, 1.f, 0, false);
+    }
+
+    private void drawTextLayout(Canvas canvas, StaticLayout layout, float y) {
+        canvas.translate(0, y);
+        layout.draw(canvas);
+        canvas.translate(0, -y);
+    }
+}
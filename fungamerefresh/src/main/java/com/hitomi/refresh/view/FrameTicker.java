@@ -0,0 +1,176 @@
+package com.hitomi.refresh.view;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Frame clock shared by every {@link FunGameView} of a looper thread.
+ * Only one frame callback is posted per vsync no matter how many games are registered,
+ * and it is posted only while at least one game is registered.
+ */
+final class FrameTicker {
+
+    /**
+     * Receives the vsync frame time of every frame while registered
+     */
+    interface FrameListener {
+        void doFrame(long frameTimeNanos);
+    }
+
+    /**
+     * Source of frame callbacks, Choreographer on API 16 and above
+     */
+    interface FrameSource {
+        void postFrame(FrameTicker ticker);
+
+        void removeFrame(FrameTicker ticker);
+    }
+
+    private static final ThreadLocal<FrameTicker> TICKERS = new ThreadLocal<>();
+
+    private final ArrayList<FrameListener> listeners = new ArrayList<>();
+
+    /**
+     * Listeners of the frame being dispatched, reused from frame to frame
+     */
+    private final ArrayList<FrameListener> dispatchListeners = new ArrayList<>();
+
+    private final FrameSource frameSource;
+
+    private boolean framePosted;
+
+    FrameTicker(FrameSource frameSource) {
+        this.frameSource = frameSource;
+    }
+
+    /**
+     * Get the ticker of the calling thread, which must have a looper
+     * @return frame ticker
+     */
+    static FrameTicker getInstance() {
+        FrameTicker ticker = TICKERS.get();
+        if (ticker == null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                ticker = new FrameTicker(new ChoreographerFrameSource());
+            } else {
+                ticker = new FrameTicker(new HandlerFrameSource());
+            }
+            TICKERS.set(ticker);
+        }
+        return ticker;
+    }
+
+    /**
+     * Start delivering frames to the listener
+     * @param listener frame listener
+     */
+    void register(FrameListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+            postFrame();
+        }
+    }
+
+    /**
+     * Stop delivering frames to the listener, takes effect for the frame being dispatched too
+     * @param listener frame listener
+     */
+    void unregister(FrameListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && framePosted) {
+            framePosted = false;
+            frameSource.removeFrame(this);
+        }
+    }
+
+    /**
+     * Dispatch one frame to the registered listeners
+     * @param frameTimeNanos vsync frame time
+     */
+    void doFrame(long frameTimeNanos) {
+        framePosted = false;
+        for (int i = 0; i < listeners.size(); i++) { // addAll would copy the listeners into a new array
+            dispatchListeners.add(listeners.get(i));
+        }
+        for (int i = 0; i < dispatchListeners.size(); i++) {
+            FrameListener listener = dispatchListeners.get(i);
+            if (listeners.contains(listener)) {
+                listener.doFrame(frameTimeNanos);
+            }
+        }
+        dispatchListeners.clear();
+        postFrame();
+    }
+
+    int getListenerCount() {
+        return listeners.size();
+    }
+
+    boolean isFramePosted() {
+        return framePosted;
+    }
+
+    private void postFrame() {
+        if (!framePosted && !listeners.isEmpty()) {
+            framePosted = true;
+            frameSource.postFrame(this);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerFrameSource implements FrameSource, Choreographer.FrameCallback {
+
+        private final Choreographer choreographer = Choreographer.getInstance();
+
+        private FrameTicker ticker;
+
+        @Override
+        public void postFrame(FrameTicker ticker) {
+            this.ticker = ticker;
+            choreographer.postFrameCallback(this);
+        }
+
+        @Override
+        public void removeFrame(FrameTicker ticker) {
+            choreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            ticker.doFrame(frameTimeNanos);
+        }
+    }
+
+    /**
+     * Fallback for API 14 and 15, frames are posted at the nominal 60 Hz rate
+     */
+    private static class HandlerFrameSource implements FrameSource, Runnable {
+
+        private static final long FRAME_DELAY = 16;
+
+        private final Handler handler = new Handler(Looper.myLooper());
+
+        private FrameTicker ticker;
+
+        @Override
+        public void postFrame(FrameTicker ticker) {
+            this.ticker = ticker;
+            handler.postDelayed(this, FRAME_DELAY);
+        }
+
+        @Override
+        public void removeFrame(FrameTicker ticker) {
+            handler.removeCallbacks(this);
+        }
+
+        @Override
+        public void run() {
+            ticker.doFrame(System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.hitomi.refresh.view;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+
+import com.hitomi.refresh.R;
+import com.hitomi.refresh.game.HitBlockGame;
+
+/**
+ * Settings of a refresh header and its game. A config is immutable, so one instance can be shared
+ * by any number of refresh views. It is read from the layout attributes in a single pass,
+ * or assembled in code with a {@link Builder}:
+ * <pre>
+ * FunGameConfig config = new FunGameConfig.Builder()
+ *         .setGameType(FunGameConfig.GAME_BATTLE_CITY)
+ *         .setLoadingText("Loading...")
+ *         .build();
+ * FunGameRefreshView refreshView = new FunGameRefreshView(context, config);
+ * refreshView.addView(listView);
+ * </pre>
+ */
+public final class FunGameConfig {
+
+    public static final int GAME_HIT_BLOCK = FunGameFactory.HITBLOCK;
+
+    public static final int GAME_BATTLE_CITY = FunGameFactory.BATTLECITY;
+
+    public static final int RENDER_MODE_VIEW = FunGameHeader.RENDER_MODE_VIEW;
+
+    public static final int RENDER_MODE_TEXTURE = FunGameHeader.RENDER_MODE_TEXTURE;
+
+    private static final String DEFAULT_TOP_MASK_TEXT = "Pull To Break Out!";
+    private static final String DEFAULT_BOTTOM_MASK_TEXT = "Scrooll to move handle";
+    private static final String DEFAULT_LOADING_TEXT = "Loading...";
+    private static final String DEFAULT_LOADING_FINISHED_TEXT = "Loading Finished";
+    private static final String DEFAULT_GAME_OVER_TEXT = "Game Over";
+
+    private static final int DEFAULT_MASK_TEXT_SIZE = 16;
+
+    private final int gameType;
+
+    private final int renderMode;
+
+    private final String topMaskText, bottomMaskText;
+
+    private final String loadingText, loadingFinishedText, gameOverText;
+
+    private final int topMaskTextSize, bottomMaskTextSize;
+
+    private final int leftModelColor, middleModelColor, rightModelColor;
+
+    private final int blockHorizontalNum, ballSpeed;
+
+    private FunGameConfig(Builder builder) {
+        gameType = builder.gameType;
+        renderMode = builder.renderMode;
+        topMaskText = builder.topMaskText;
+        bottomMaskText = builder.bottomMaskText;
+        loadingText = builder.loadingText;
+        loadingFinishedText = builder.loadingFinishedText;
+        gameOverText = builder.gameOverText;
+        topMaskTextSize = builder.topMaskTextSize;
+        bottomMaskTextSize = builder.bottomMaskTextSize;
+        leftModelColor = builder.leftModelColor;
+        middleModelColor = builder.middleModelColor;
+        rightModelColor = builder.rightModelColor;
+        blockHorizontalNum = builder.blockHorizontalNum;
+        ballSpeed = builder.ballSpeed;
+    }
+
+    /**
+     * Read every attribute of the header and its game with one {@code obtainStyledAttributes} call
+     *
+     * @param context context of the inflated view
+     * @param attrs   attributes of the inflated view, null for the defaults
+     * @return config of the inflated view
+     */
+    public static FunGameConfig fromAttributes(Context context, AttributeSet attrs) {
+        Builder builder = new Builder();
+        if (attrs == null) return builder.build();
+
+        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.FunGameConfig);
+        builder.setGameType(typedArray.getInt(R.styleable.FunGameConfig_game_type, builder.gameType))
+                .setRenderMode(typedArray.getInt(R.styleable.FunGameConfig_render_mode, builder.renderMode))
+                .setTopMaskTextSize(typedArray.getInt(R.styleable.FunGameConfig_top_text_size, builder.topMaskTextSize))
+                .setBottomMaskTextSize(typedArray.getInt(R.styleable.FunGameConfig_bottom_text_size, builder.bottomMaskTextSize))
+                .setModelColors(typedArray.getColor(R.styleable.FunGameConfig_left_model_color, builder.leftModelColor),
+                        typedArray.getColor(R.styleable.FunGameConfig_middle_model_color, builder.middleModelColor),
+                        typedArray.getColor(R.styleable.FunGameConfig_right_model_color, builder.rightModelColor))
+                .setBlockHorizontalNum(typedArray.getInt(R.styleable.FunGameConfig_block_horizontal_num, builder.blockHorizontalNum))
+                .setBallSpeed(typedArray.getInt(R.styleable.FunGameConfig_ball_speed, builder.ballSpeed));
+
+        String text = typedArray.getString(R.styleable.FunGameConfig_mask_top_text);
+        if (text != null) builder.setTopMaskText(text);
+        text = typedArray.getString(R.styleable.FunGameConfig_mask_bottom_text);
+        if (text != null) builder.setBottomMaskText(text);
+        text = typedArray.getString(R.styleable.FunGameConfig_text_loading);
+        if (text != null) builder.setLoadingText(text);
+        text = typedArray.getString(R.styleable.FunGameConfig_text_loading_finished);
+        if (text != null) builder.setLoadingFinishedText(text);
+        text = typedArray.getString(R.styleable.FunGameConfig_text_game_over);
+        if (text != null) builder.setGameOverText(text);
+
+        typedArray.recycle();
+        return builder.build();
+    }
+
+    public int getGameType() {
+        return gameType;
+    }
+
+    public int getRenderMode() {
+        return renderMode;
+    }
+
+    public String getTopMaskText() {
+        return topMaskText;
+    }
+
+    public String getBottomMaskText() {
+        return bottomMaskText;
+    }
+
+    public String getLoadingText() {
+        return loadingText;
+    }
+
+    public String getLoadingFinishedText() {
+        return loadingFinishedText;
+    }
+
+    public String getGameOverText() {
+        return gameOverText;
+    }
+
+    public int getTopMaskTextSize() {
+        return topMaskTextSize;
+    }
+
+    public int getBottomMaskTextSize() {
+        return bottomMaskTextSize;
+    }
+
+    public int getLeftModelColor() {
+        return leftModelColor;
+    }
+
+    public int getMiddleModelColor() {
+        return middleModelColor;
+    }
+
+    public int getRightModelColor() {
+        return rightModelColor;
+    }
+
+    public int getBlockHorizontalNum() {
+        return blockHorizontalNum;
+    }
+
+    public int getBallSpeed() {
+        return ballSpeed;
+    }
+
+    /**
+     * Assembles a {@link FunGameConfig}, every setting starts at the value used when the attribute is missing
+     */
+    public static final class Builder {
+
+        private int gameType = GAME_HIT_BLOCK;
+
+        private int renderMode = RENDER_MODE_VIEW;
+
+        private String topMaskText = DEFAULT_TOP_MASK_TEXT;
+        private String bottomMaskText = DEFAULT_BOTTOM_MASK_TEXT;
+        private String loadingText = DEFAULT_LOADING_TEXT;
+        private String loadingFinishedText = DEFAULT_LOADING_FINISHED_TEXT;
+        private String gameOverText = DEFAULT_GAME_OVER_TEXT;
+
+        private int topMaskTextSize = DEFAULT_MASK_TEXT_SIZE;
+        private int bottomMaskTextSize = DEFAULT_MASK_TEXT_SIZE;
+
+        private int leftModelColor = FunGameView.DEFAULT_LEFT_MODEL_COLOR;
+        private int middleModelColor = FunGameView.DEFAULT_MIDDLE_MODEL_COLOR;
+        private int rightModelColor = FunGameView.DEFAULT_RIGHT_MODEL_COLOR;
+
+        private int blockHorizontalNum = HitBlockGame.DEFAULT_BLOCK_HORIZONTAL_NUM;
+        private int ballSpeed = HitBlockGame.DEFAULT_SPEED;
+
+        public Builder() {
+        }
+
+        /**
+         * Start from the settings of an existing config
+         */
+        public Builder(FunGameConfig config) {
+            gameType = config.gameType;
+            renderMode = config.renderMode;
+            topMaskText = config.topMaskText;
+            bottomMaskText = config.bottomMaskText;
+            loadingText = config.loadingText;
+            loadingFinishedText = config.loadingFinishedText;
+            gameOverText = config.gameOverText;
+            topMaskTextSize = config.topMaskTextSize;
+            bottomMaskTextSize = config.bottomMaskTextSize;
+            leftModelColor = config.leftModelColor;
+            middleModelColor = config.middleModelColor;
+            rightModelColor = config.rightModelColor;
+            blockHorizontalNum = config.blockHorizontalNum;
+            ballSpeed = config.ballSpeed;
+        }
+
+        /**
+         * @param gameType {@link #GAME_HIT_BLOCK} or {@link #GAME_BATTLE_CITY}
+         */
+        public Builder setGameType(int gameType) {
+            this.gameType = gameType;
+            return this;
+        }
+
+        /**
+         * @param renderMode {@link #RENDER_MODE_VIEW} or {@link #RENDER_MODE_TEXTURE}
+         */
+        public Builder setRenderMode(int renderMode) {
+            this.renderMode = renderMode;
+            return this;
+        }
+
+        public Builder setTopMaskText(String topMaskText) {
+            this.topMaskText = topMaskText;
+            return this;
+        }
+
+        public Builder setBottomMaskText(String bottomMaskText) {
+            this.bottomMaskText = bottomMaskText;
+            return this;
+        }
+
+        public Builder setLoadingText(String loadingText) {
+            this.loadingText = loadingText;
+            return this;
+        }
+
+        public Builder setLoadingFinishedText(String loadingFinishedText) {
+            this.loadingFinishedText = loadingFinishedText;
+            return this;
+        }
+
+        public Builder setGameOverText(String gameOverText) {
+            this.gameOverText = gameOverText;
+            return this;
+        }
+
+        /**
+         * @param topMaskTextSize text size of the top curtain, in sp
+         */
+        public Builder setTopMaskTextSize(int topMaskTextSize) {
+            this.topMaskTextSize = topMaskTextSize;
+            return this;
+        }
+
+        /**
+         * @param bottomMaskTextSize text size of the bottom curtain, in sp
+         */
+        public Builder setBottomMaskTextSize(int bottomMaskTextSize) {
+            this.bottomMaskTextSize = bottomMaskTextSize;
+            return this;
+        }
+
+        /**
+         * Colors of the left, middle and right game models
+         */
+        public Builder setModelColors(int leftModelColor, int middleModelColor, int rightModelColor) {
+            this.leftModelColor = leftModelColor;
+            this.middleModelColor = middleModelColor;
+            this.rightModelColor = rightModelColor;
+            return this;
+        }
+
+        /**
+         * @param blockHorizontalNum number of block columns of the hit block game
+         */
+        public Builder setBlockHorizontalNum(int blockHorizontalNum) {
+            this.blockHorizontalNum = blockHorizontalNum;
+            return this;
+        }
+
+        /**
+         * @param ballSpeed ball speed of the hit block game, in pixels per simulation step
+         */
+        public Builder setBallSpeed(int ballSpeed) {
+            this.ballSpeed = ballSpeed;
+            return this;
+        }
+
+        public FunGameConfig build() {
+            return new FunGameConfig(this);
+        }
+    }
+}
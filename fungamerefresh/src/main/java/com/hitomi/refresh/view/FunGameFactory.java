@@ -1,7 +1,6 @@
 package com.hitomi.refresh.view;
 
 import android.content.Context;
-import android.util.AttributeSet;
 
 /**
  * Created by Hitomis on 2016/3/10.
@@ -15,17 +14,17 @@ public class FunGameFactory {
 
     static final int BATTLECITY = 1;
 
-    static FunGameView createFunGameView(Context context, AttributeSet attributeSet, int type) {
+    static FunGameView createFunGameView(Context context, FunGameConfig config) {
         FunGameView funGameView = null;
-        switch (type) {
+        switch (config.getGameType()) {
             case HITBLOCK:
-                funGameView = new HitBlockView(context, attributeSet);
+                funGameView = new HitBlockView(context, config);
                 break;
             case BATTLECITY:
-                funGameView = new BattleCityView(context, attributeSet);
+                funGameView = new BattleCityView(context, config);
                 break;
             default:
-                funGameView = new HitBlockView(context, attributeSet);
+                funGameView = new HitBlockView(context, config);
         }
         return funGameView;
     }
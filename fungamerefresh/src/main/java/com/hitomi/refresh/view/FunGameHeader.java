@@ -4,54 +4,69 @@ package com.hitomi.refresh.view;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
 import android.content.Context;
-import android.content.res.TypedArray;
-import android.graphics.Color;
 import android.util.AttributeSet;
-import android.view.Gravity;
+import android.util.DisplayMetrics;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
-import android.widget.RelativeLayout;
-import android.widget.TextView;
 
-import com.hitomi.refresh.R;
 
 
 /**
  * Created by Hitomis on 2016/3/1.
+ * The game and the curtain are only built when the header is first pulled or {@link #prepare()} is called,
+ * until then the header is an empty placeholder of the game's size.
  */
 public class FunGameHeader extends FrameLayout {
 
+    /**
+     * Game drawn by its own view on the main thread
+     */
+    static final int RENDER_MODE_VIEW = 0;
+
+    /**
+     * Game drawn into a TextureView on a dedicated render thread
+     */
+    static final int RENDER_MODE_TEXTURE = 1;
+
     private Context mContext;
 
-    private int headerType;
+    private final FunGameConfig config;
 
     private FunGameView funGameView;
 
-    private RelativeLayout curtainReLayout, maskReLayout;
+    private CurtainView curtainView;
 
-    private TextView topMaskView, bottomMaskView;
+    private boolean isStart = false;
 
-    private int halfHitBlockHeight;
+    /**
+     * Opens the curtain, created once and restarted by every refresh
+     */
+    private ValueAnimator curtainAnimator;
 
-    private boolean isStart = false;
+    private float curtainStartProgress;
     
-    private String topMaskViewText = "Pull To Break Out!";
-    private String bottomMaskViewText = "Scrooll to move handle";
-    private String loadingText = "Loading...";
-    private String loadingFinishedText = "Loading Finished";
-    private String gameOverText = "Game Over";
+    private String topMaskViewText;
+    private String bottomMaskViewText;
+    private String loadingText;
+    private String loadingFinishedText;
+    private String gameOverText;
 
-    private int topMaskTextSize = 16;
+    private boolean isGameExposed;
 
-    private int bottomMaskTextSize = 16;
+    private RefreshMetrics metrics;
+
+    private FunGameRefreshView.TouchLatencyListener touchLatencyListener;
+
+    /**
+     * Size of the game to come, measured by the placeholder. Read from the display once, on the first measure pass
+     */
+    private int placeholderWidth, placeholderHeight;
 
     public FunGameHeader(Context context) {
-        this(context, null);
+        this(context, (AttributeSet) null);
     }
 
     public FunGameHeader(Context context, AttributeSet attrs) {
@@ -59,117 +74,145 @@ public class FunGameHeader extends FrameLayout {
     }
 
     public FunGameHeader(Context context, AttributeSet attrs, int defStyleAttr) {
-        super(context, attrs, defStyleAttr);
-        mContext = context;
-
-        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.FunGameHeader);
-
-        headerType = typedArray.getInt(R.styleable.FunGameHeader_game_type, FunGameFactory.HITBLOCK);
+        this(context, attrs, defStyleAttr, FunGameConfig.fromAttributes(context, attrs));
+    }
 
-        String topText = typedArray.getString(R.styleable.FunGameHeader_mask_top_text);
-        topMaskViewText = topText == null ? topMaskViewText : topText;
+    /**
+     * @param config settings of the header and its game, the game view is built from it later
+     */
+    FunGameHeader(Context context, FunGameConfig config) {
+        this(context, null, 0, config);
+    }
 
-        String bottomText = typedArray.getString(R.styleable.FunGameHeader_mask_bottom_text);
-        bottomMaskViewText = bottomText == null ? bottomMaskViewText : bottomText;
+    private FunGameHeader(Context context, AttributeSet attrs, int defStyleAttr, FunGameConfig config) {
+        super(context, attrs, defStyleAttr);
+        mContext = context;
+        this.config = config;
 
-        String loadingStr = typedArray.getString(R.styleable.FunGameHeader_text_loading);
-        loadingText = loadingStr == null ? loadingText : loadingStr;
+        topMaskViewText = config.getTopMaskText();
+        bottomMaskViewText = config.getBottomMaskText();
+        loadingText = config.getLoadingText();
+        loadingFinishedText = config.getLoadingFinishedText();
+        gameOverText = config.getGameOverText();
+    }
 
-        String loadingFinishedStr = typedArray.getString(R.styleable.FunGameHeader_text_loading_finished);
-        loadingFinishedText = loadingFinishedStr == null ? loadingFinishedText : loadingFinishedStr;
+    /**
+     * Build the game and the curtain now instead of on the first pull, e.g. from an idle handler once
+     * the screen is shown, so the first pull does not pay for it
+     */
+    public void prepare() {
+        if (funGameView == null) {
+            initView();
+        }
+    }
 
-        String gameOverStr = typedArray.getString(R.styleable.FunGameHeader_text_game_over);
-        gameOverText = gameOverStr == null ? gameOverText : gameOverStr;
+    public boolean isPrepared() {
+        return funGameView != null;
+    }
 
-        topMaskTextSize = typedArray.getInt(R.styleable.FunGameHeader_top_text_size, topMaskTextSize);
-        bottomMaskTextSize = typedArray.getInt(R.styleable.FunGameHeader_bottom_text_size, bottomMaskTextSize);
-        
-        typedArray.recycle();
+    /**
+     * @param metrics counters of the frame work of the game
+     */
+    void setMetrics(RefreshMetrics metrics) {
+        this.metrics = metrics;
+        if (funGameView != null)
+            funGameView.setMetrics(metrics);
+    }
 
-        initView(attrs);
+    void setTouchLatencyListener(FunGameRefreshView.TouchLatencyListener touchLatencyListener) {
+        this.touchLatencyListener = touchLatencyListener;
+        if (funGameView != null)
+            funGameView.setTouchLatencyListener(touchLatencyListener);
     }
 
-    private void initView(AttributeSet attrs) {
-        funGameView = FunGameFactory.createFunGameView(mContext, attrs, headerType);
+    private void initView() {
+        funGameView = FunGameFactory.createFunGameView(mContext, config);
+        funGameView.setMetrics(metrics);
+        funGameView.setTouchLatencyListener(touchLatencyListener);
+        funGameView.setExposed(isGameExposed);
         setHeaderLodingStr(loadingText);
         setHeaderLoadingFinishedStr(loadingFinishedText);
         setHeaderGameOverStr(gameOverText);
         funGameView.postStatus(FunGameView.STATUS_GAME_PREPAR);
         addView(funGameView);
 
-        curtainReLayout = new RelativeLayout(mContext);
-        maskReLayout = new RelativeLayout(mContext);
-        maskReLayout.setBackgroundColor(Color.parseColor("#3A3A3A"));
-
-        topMaskView = createMaskTextView(topMaskViewText, topMaskTextSize, Gravity.BOTTOM);
-        bottomMaskView = createMaskTextView(bottomMaskViewText, bottomMaskTextSize, Gravity.TOP);
-
-        coverMaskView();
-
-        funGameView.getViewTreeObserver().addOnGlobalLayoutListener(new MeasureListener());
-    }
+        if (config.getRenderMode() == RENDER_MODE_TEXTURE) {
+            addView(new GameTextureView(mContext, funGameView), new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        }
 
-    private TextView createMaskTextView(String text, int textSize, int gravity) {
-        TextView maskTextView = new TextView(mContext);
-        maskTextView.setTextColor(Color.BLACK);
-        maskTextView.setBackgroundColor(Color.WHITE);
-        maskTextView.setGravity(gravity | Gravity.CENTER_HORIZONTAL);
-        maskTextView.setTextSize(textSize);
-        maskTextView.setText(text);
-        return maskTextView;
+        curtainView = new CurtainView(mContext, topMaskViewText, config.getTopMaskTextSize(),
+                bottomMaskViewText, config.getBottomMaskTextSize());
+        addView(curtainView, new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        initCurtainAnimator();
+        setCurtainProgress(0);
     }
 
-    private void coverMaskView() {
-        LayoutParams maskLp = new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
-        maskLp.topMargin = (int) FunGameView.DIVIDING_LINE_SIZE;
-        maskLp.bottomMargin = (int) FunGameView.DIVIDING_LINE_SIZE;
-
-        addView(maskReLayout, maskLp);
-        addView(curtainReLayout, maskLp);
+    /**
+     * Move the curtain and let the game draw only the part that shows between its halves
+     */
+    private void setCurtainProgress(float progress) {
+        curtainView.setProgress(progress);
+        funGameView.setUncoveredArea(curtainView.getGapTop(), curtainView.getGapBottom());
     }
 
-    private class MeasureListener implements ViewTreeObserver.OnGlobalLayoutListener {
-
-        @Override
-        public void onGlobalLayout() {
-            halfHitBlockHeight = (int) ((funGameView.getHeight() - 2 * FunGameView.DIVIDING_LINE_SIZE) * .5f);
-            RelativeLayout.LayoutParams topRelayLayoutParams = new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, halfHitBlockHeight);
-            RelativeLayout.LayoutParams bottomRelayLayoutParams = new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, halfHitBlockHeight);
-            bottomRelayLayoutParams.topMargin = halfHitBlockHeight;
+    private void initCurtainAnimator() {
+        curtainAnimator = ValueAnimator.ofFloat(0.f, 1.f);
+        curtainAnimator.setDuration(800);
+        curtainAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                float fraction = animation.getAnimatedFraction();
+                setCurtainProgress(curtainStartProgress + (1 - curtainStartProgress) * fraction);
+            }
+        });
+        curtainAnimator.addListener(new AnimatorListenerAdapter() {
 
-            curtainReLayout.removeAllViews();
-            curtainReLayout.addView(topMaskView, 0, topRelayLayoutParams);
-            curtainReLayout.addView(bottomMaskView, 1, bottomRelayLayoutParams);
+            private boolean isCanceled;
 
-            getViewTreeObserver().removeGlobalOnLayoutListener(this);
-        }
-    }
-
-    private void doStart(long delay) {
-        ObjectAnimator topMaskAnimator = ObjectAnimator.ofFloat(topMaskView, "translationY", topMaskView.getTranslationY(), -halfHitBlockHeight);
-        ObjectAnimator bottomMaskAnimator = ObjectAnimator.ofFloat(bottomMaskView, "translationY", bottomMaskView.getTranslationY(), halfHitBlockHeight);
-        ObjectAnimator maskShadowAnimator = ObjectAnimator.ofFloat(maskReLayout, "alpha", maskReLayout.getAlpha(), 0);
+            @Override
+            public void onAnimationStart(Animator animation) {
+                isCanceled = false;
+            }
 
-        AnimatorSet animatorSet = new AnimatorSet();
-        animatorSet.play(topMaskAnimator).with(bottomMaskAnimator).with(maskShadowAnimator);
-        animatorSet.setDuration(800);
-        animatorSet.setStartDelay(delay);
-        animatorSet.start();
+            @Override
+            public void onAnimationCancel(Animator animation) {
+                isCanceled = true;
+            }
 
-        animatorSet.addListener(new AnimatorListenerAdapter() {
             @Override
             public void onAnimationEnd(Animator animation) {
-                topMaskView.setVisibility(View.GONE);
-                bottomMaskView.setVisibility(View.GONE);
-                maskReLayout.setVisibility(View.GONE);
+                if (isCanceled) return;
 
                 funGameView.postStatus(FunGameView.STATUS_GAME_PLAY);
             }
         });
     }
 
+    private void doStart(long delay) {
+        curtainStartProgress = curtainView.getProgress();
+        curtainAnimator.setStartDelay(delay);
+        curtainAnimator.start();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (curtainAnimator != null)
+            curtainAnimator.cancel();
+        super.onDetachedFromWindow();
+    }
+
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (funGameView == null) { // Placeholder of the size the game will have
+            if (placeholderWidth == 0) {
+                DisplayMetrics screenMetrics = FunGameView.getScreenMetrics(mContext);
+                placeholderWidth = screenMetrics.widthPixels;
+                placeholderHeight = (int) (screenMetrics.heightPixels * FunGameView.VIEW_HEIGHT_RATIO);
+            }
+            setMeasuredDimension(placeholderWidth, placeholderHeight);
+            return;
+        }
+
         final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
         int width = 0, height = 0;
 
@@ -191,6 +234,7 @@ public class FunGameHeader extends FrameLayout {
     }
 
     public void postStart() {
+        prepare();
         if (!isStart) {
             doStart(200);
             isStart = true;
@@ -199,54 +243,78 @@ public class FunGameHeader extends FrameLayout {
 
     public void postEnd() {
         isStart = false;
-        funGameView.postStatus(FunGameView.STATUS_GAME_PREPAR);
+        if (funGameView == null) return;
 
-        topMaskView.setTranslationY(topMaskView.getTranslationY() + halfHitBlockHeight);
-        bottomMaskView.setTranslationY(bottomMaskView.getTranslationY() - halfHitBlockHeight);
-        maskReLayout.setAlpha(1.f);
+        curtainAnimator.cancel();
+        funGameView.postStatus(FunGameView.STATUS_GAME_PREPAR);
 
-        topMaskView.setVisibility(View.VISIBLE);
-        bottomMaskView.setVisibility(View.VISIBLE);
-        maskReLayout.setVisibility(View.VISIBLE);
+        // Closed from wherever the curtain stopped, also when it was canceled half open
+        setCurtainProgress(0);
     }
 
     public void postComplete() {
+        if (funGameView == null) return;
         funGameView.postStatus(FunGameView.STATUS_GAME_FINISHED);
     }
 
     public void moveRacket(float distance) {
-        if (isStart)
+        if (isStart && funGameView != null)
             funGameView.moveController(distance);
     }
 
+    /**
+     * @param distance       distance moved when the touch event was sampled
+     * @param velocity       speed of the racket in pixels per second, to draw it where the finger is at the frame time
+     * @param eventTimeNanos time the touch event was sampled
+     */
+    void moveRacket(float distance, float velocity, long eventTimeNanos) {
+        if (isStart && funGameView != null)
+            funGameView.moveController(distance, velocity, eventTimeNanos);
+    }
+
+    public void setGameExposed(boolean exposed) {
+        isGameExposed = exposed;
+        if (funGameView != null)
+            funGameView.setExposed(exposed);
+    }
+
     public void back2StartPoint(long duration) {
-        funGameView.moveController2StartPoint(duration);
+        if (funGameView != null)
+            funGameView.moveController2StartPoint(duration);
     }
 
     public int getGameStatus() {
-        return funGameView.getCurrStatus();
+        return funGameView == null ? FunGameView.STATUS_GAME_PREPAR : funGameView.getCurrStatus();
     }
 
     public void setTopMaskViewText(String topMaskViewText) {
         this.topMaskViewText = topMaskViewText;
-        topMaskView.setText(topMaskViewText);
+        if (curtainView != null)
+            curtainView.setTopText(topMaskViewText);
     }
 
     public void setBottomMaskViewText(String bottomMaskViewText) {
         this.bottomMaskViewText = bottomMaskViewText;
-        bottomMaskView.setText(bottomMaskViewText);
+        if (curtainView != null)
+            curtainView.setBottomText(bottomMaskViewText);
     }
 
     public void setHeaderLodingStr(String loadingStr) {
-        funGameView.setTextLoading(loadingStr);
+        loadingText = loadingStr;
+        if (funGameView != null)
+            funGameView.setTextLoading(loadingStr);
     }
 
     public void setHeaderGameOverStr(String gameOverStr) {
-        funGameView.setTextGameOver(gameOverStr);
+        gameOverText = gameOverStr;
+        if (funGameView != null)
+            funGameView.setTextGameOver(gameOverStr);
     }
 
     public void setHeaderLoadingFinishedStr(String loadingFinishedStr) {
-        funGameView.setTextLoadingFinished(loadingFinishedStr);
+        loadingFinishedText = loadingFinishedStr;
+        if (funGameView != null)
+            funGameView.setTextLoadingFinished(loadingFinishedStr);
     }
 
 }
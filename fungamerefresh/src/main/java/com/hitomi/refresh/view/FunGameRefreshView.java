@@ -1,25 +1,34 @@
 package com.hitomi.refresh.view;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.os.AsyncTask;
 import android.os.Build;
+import android.os.Process;
 import android.os.SystemClock;
+import android.support.v4.view.NestedScrollingParent;
+import android.support.v4.view.NestedScrollingParentHelper;
 import android.support.v4.view.ViewCompat;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
-import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.ViewConfiguration;
 import android.widget.AbsListView;
 import android.widget.LinearLayout;
 
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Created by Hitomis on 2016/3/2.
  */
-public class FunGameRefreshView extends LinearLayout implements View.OnTouchListener {
+public class FunGameRefreshView extends LinearLayout implements NestedScrollingParent {
     /**
      * Pull-down state
      */
@@ -50,11 +59,128 @@ public class FunGameRefreshView extends LinearLayout implements View.OnTouchList
      */
     private static final float STICK_RATIO = .65f;
 
+    /**
+     * Downward finger speed, in dp per second, from which releasing a partly pulled header still refreshes
+     */
+    private static final float FLING_TO_REFRESH_VELOCITY = 1000;
+
+    /**
+     * Delay before the header collapses after the refresh finished, to show the finished text
+     */
+    private static final long COLLAPSE_DELAY = 500;
+
+    /**
+     * Touch event times are in milliseconds of the uptime clock, which frame times share in nanoseconds
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * Default minimum time the game is shown during a refresh, in milliseconds
+     */
+    private static final long DEFAULT_MIN_REFRESH_TIME = 1500;
+
+    /**
+     * Threads of the default refresh executor, idle threads stop after {@link #REFRESH_THREAD_KEEP_ALIVE} seconds
+     */
+    private static final int REFRESH_THREAD_NUM = 2;
+
+    private static final long REFRESH_THREAD_KEEP_ALIVE = 30;
+
+    private static Executor defaultRefreshExecutor;
+
+    /**
+     * What happens once the header settled: nothing, start the refresh task, or finish the refresh
+     */
+    private static final int SETTLE_HOLD = 0, SETTLE_REFRESH = 1, SETTLE_COLLAPSE = 2;
+
     /**
      * Callback interface for pull-down refresh
      */
     private FunGameRefreshListener mListener;
 
+    /**
+     * Callback interface for non-blocking pull-down refresh, used instead of {@link #mListener} when set
+     */
+    private AsyncRefreshListener asyncListener;
+
+    /**
+     * Background task running the blocking listener
+     */
+    private AsyncTask<Void, Void, Void> refreshTask;
+
+    /**
+     * Runs the blocking listener, see {@link #setRefreshExecutor(Executor)}
+     */
+    private Executor refreshExecutor;
+
+    /**
+     * Identifies the running refresh, completions of an earlier or a canceled refresh are ignored
+     */
+    private int refreshId;
+
+    private boolean isRefreshRunning;
+
+    /**
+     * Whether the refresh starts as soon as the header is pulled out completely, before the release
+     */
+    private boolean speculativeRefresh;
+
+    /**
+     * Whether a refresh started before the release already finished, its header still has to show and collapse
+     */
+    private boolean isSpeculativeComplete;
+
+    /**
+     * Whether the refresh of the current pull was canceled before the header settled, it collapses instead
+     */
+    private boolean isPullCanceled;
+
+    /**
+     * Maximum duration of a refresh before it is canceled, 0 for none
+     */
+    private long refreshTimeout;
+
+    /**
+     * Minimum time the game is shown during a refresh, in milliseconds
+     */
+    private long minRefreshTime = DEFAULT_MIN_REFRESH_TIME;
+
+    private long refreshStartTime;
+
+    /**
+     * Minimum time between the end of a refresh and the start of the next one, 0 for none
+     */
+    private long minRefreshInterval;
+
+    /**
+     * End of the last refresh that completed, 0 before the first one
+     */
+    private long lastRefreshTime;
+
+    /**
+     * Serves the result of the last refresh while a new one runs, see {@link #setRefreshResultCache}
+     */
+    private RefreshResultCache resultCache;
+
+    /**
+     * Whether the running refresh revalidates a cached result, the header does not wait for it
+     */
+    private boolean isRevalidating;
+
+    private final Runnable finishRefreshingTask = new Runnable() {
+        @Override
+        public void run() {
+            finishRefreshing();
+        }
+    };
+
+    private final Runnable refreshTimeoutTask = new Runnable() {
+        @Override
+        public void run() {
+            cancelRefresh();
+        }
+    };
+
     /**
      * Header view for pull-down
      */
@@ -66,14 +192,20 @@ public class FunGameRefreshView extends LinearLayout implements View.OnTouchList
     private View contentView;
 
     /**
-     * Layout parameters of pull-down control
+     * Height of pull-down control
      */
-    private MarginLayoutParams headerLayoutParams;
+    private int hideHeaderHeight;
 
     /**
-     * Height of pull-down control
+     * Position of the header top relative to this view. The header is laid out once at
+     * {@link #hideHeaderHeight}, dragging translates the header and the content by the difference
      */
-    private int hideHeaderHeight;
+    private int headerTopMargin;
+
+    /**
+     * Layout work counters, see {@link #getMetrics()}
+     */
+    private final RefreshMetrics metrics = new RefreshMetrics();
 
     /**
      * Current status
@@ -81,29 +213,65 @@ public class FunGameRefreshView extends LinearLayout implements View.OnTouchList
     private int currentStatus = STATUS_REFRESH_FINISHED;
 
     /**
-     * Screen vertical coordinate when finger is pressed down
+     * Vertical coordinate when finger is pressed down, or where the current pull started
      */
     private float preDownY;
 
     /**
-     * Used to control initialization in onLayout, loaded only once
+     * Finger travel of the current pull, positive downwards
      */
-    private boolean once;
+    private float pullDistance;
+
+    /**
+     * Whether this view handles the current touch sequence itself instead of the content
+     */
+    private boolean isBeingDragged;
+
+    /**
+     * Whether the content view's nested scroll overscrolled into a pull
+     */
+    private boolean isNestedPulling;
+
+    private final NestedScrollingParentHelper nestedScrollingParentHelper;
+
+    private final int touchSlop;
 
     /**
-     * Whether pulling down is currently possible
+     * Used to control initialization in onLayout, loaded only once
      */
-    private boolean ableToPull;
+    private boolean once;
 
     /**
      * Whether the refresh thread task is completed
      */
     private boolean isExecComplete;
 
-    private int tempHeaderTopMargin;
+    /**
+     * Moves the header to its resting positions once the finger is released
+     */
+    private final HeaderSpring headerSpring;
+
+    private int settleAction;
+
+    /**
+     * Tracks the finger speed of the touch sequences going through this view
+     */
+    private VelocityTracker velocityTracker;
+
+    /**
+     * Finger velocity of the touches playing the game, from every sample of the move events
+     */
+    private final TouchPredictor touchPredictor = new TouchPredictor();
+
+    /**
+     * Downward speed of a fling the nested scrolling content handed over while pulling
+     */
+    private float nestedFlingVelocity;
+
+    private final float maxFlingVelocity, refreshFlingVelocity;
 
     public FunGameRefreshView(Context context) {
-        this(context, null);
+        this(context, (AttributeSet) null);
     }
 
     public FunGameRefreshView(Context context, AttributeSet attrs) {
@@ -111,160 +279,376 @@ public class FunGameRefreshView extends LinearLayout implements View.OnTouchList
     }
 
     public FunGameRefreshView(Context context, AttributeSet attrs, int defStyleAttr) {
+        this(context, attrs, defStyleAttr, null);
+    }
+
+    /**
+     * Create a refresh view in code, add the content to refresh with {@link #addView(View)}
+     *
+     * @param config settings of the header and its game, may be shared with other refresh views
+     */
+    public FunGameRefreshView(Context context, FunGameConfig config) {
+        this(context, null, 0, config);
+    }
+
+    private FunGameRefreshView(Context context, AttributeSet attrs, int defStyleAttr, FunGameConfig config) {
         super(context, attrs, defStyleAttr);
+        long startTime = System.nanoTime();
+        nestedScrollingParentHelper = new NestedScrollingParentHelper(this);
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        touchSlop = configuration.getScaledTouchSlop();
+        maxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+        refreshFlingVelocity = FLING_TO_REFRESH_VELOCITY * context.getResources().getDisplayMetrics().density;
+        headerSpring = new HeaderSpring(this, new HeaderSpring.Listener() {
+            @Override
+            public void onSpringUpdate(float value) {
+                setHeaderTopMarign((int) value);
+            }
+
+            @Override
+            public void onSpringEnd() {
+                onHeaderSettled();
+            }
+        });
         if (getChildCount() > 1)
             throw new RuntimeException("FunGameRefreshView can only contain one View");
         setOrientation(VERTICAL);
-        initView(context, attrs);
+        initView(context, config != null ? config : FunGameConfig.fromAttributes(context, attrs));
+        metrics.onInflated(System.nanoTime() - startTime);
     }
 
-    private void initView(Context context, AttributeSet attrs) {
-        header = new FunGameHeader(context, attrs);
+    private void initView(Context context, FunGameConfig config) {
+        header = new FunGameHeader(context, config);
+        header.setMetrics(metrics);
         addView(header, 0);
     }
 
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        metrics.onMeasurePass();
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        if (hideHeaderHeight == 0 && header.getMeasuredHeight() > 0) {
+            // Hide the header above the content once, pulling it out later only translates the views
+            hideHeaderHeight = -header.getMeasuredHeight();
+            headerTopMargin = hideHeaderHeight;
+            ((MarginLayoutParams) header.getLayoutParams()).topMargin = hideHeaderHeight;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+    }
+
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        metrics.onLayoutPass();
         super.onLayout(changed, l, t, r, b);
         if (changed && !once) {
-            hideHeaderHeight = -header.getHeight();
-            headerLayoutParams = (MarginLayoutParams) header.getLayoutParams();
-            headerLayoutParams.topMargin = hideHeaderHeight;
+            header.setGameExposed(false);
             contentView = getChildAt(1);
-            contentView.setOnTouchListener(this);
             once = true;
         }
     }
 
     @Override
-    public boolean onTouch(View v, MotionEvent event) {
-        checkAblePull(event);
-        if (!ableToPull) return false;
-        if (currentStatus == STATUS_AGAIN_DOWN) {
-            return handleAgainDownAction(event);
+    public boolean dispatchTouchEvent(MotionEvent event) {
+        if (velocityTracker == null) {
+            velocityTracker = VelocityTracker.obtain();
+        }
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            velocityTracker.clear();
         }
-        switch (event.getAction()) {
+        velocityTracker.addMovement(event);
+        return super.dispatchTouchEvent(event);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        // Nothing scheduled by this view may outlive its window and keep the activity alive
+        headerSpring.cancel();
+        cancelRefreshWork();
+        removeCallbacks(finishRefreshingTask);
+        removeCallbacks(refreshTimeoutTask);
+        isSpeculativeComplete = false;
+        if (currentStatus != STATUS_REFRESH_FINISHED) { // Attached again, it starts collapsed
+            currentStatus = STATUS_REFRESH_FINISHED;
+            isExecComplete = false;
+            setHeaderTopMarign(hideHeaderHeight);
+            header.postEnd();
+        }
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        if (contentView == null) return false;
+
+        switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
-                preDownY = event.getRawY();
-                if (currentStatus == STATUS_REFRESHING) { // Indicates that when released, it is in the refreshing state, and then pressed again
-                    currentStatus = STATUS_AGAIN_DOWN;
-                    setHeaderTopMarign(0);
+                preDownY = event.getY();
+                isBeingDragged = false;
+                if (currentStatus == STATUS_REFRESHING) { // Pressed again while refreshing, the touches play the game
+                    startAgainDown();
+                    isBeingDragged = true;
                 }
                 break;
             case MotionEvent.ACTION_MOVE:
-                float currY = event.getRawY();
-                float distance = currY - preDownY;
-                float offsetY = distance * STICK_RATIO;
-                if (distance <= 0 && headerLayoutParams.topMargin <= hideHeaderHeight) {
-                    return false;
+                // A nested scrolling content hands its overscroll over through onNestedScroll instead
+                if (!isBeingDragged && !ViewCompat.isNestedScrollingEnabled(contentView)) {
+                    checkStartPull(event.getY());
                 }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                isBeingDragged = false;
+                break;
+        }
+        return isBeingDragged;
+    }
 
-                if (headerLayoutParams.topMargin > 0) { // When the head is completely pulled out, the status is changed to release refresh
-                    currentStatus = STATUS_RELEASE_TO_REFRESH;
-                }
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) { // Nothing in the content took the touch, watch it for a pull
+            preDownY = event.getY();
+            return true;
+        }
+        if (!isBeingDragged) {
+            if (action == MotionEvent.ACTION_MOVE) {
+                checkStartPull(event.getY());
+            }
+            if (!isBeingDragged) return true;
+        }
 
-                if (headerLayoutParams.topMargin > 0) {
-                    currentStatus = STATUS_RELEASE_TO_REFRESH;
+        switch (action) {
+            case MotionEvent.ACTION_MOVE:
+                float distance = event.getY() - preDownY;
+                if (currentStatus == STATUS_AGAIN_DOWN) {
+                    addTouchSamples(event);
+                    moveAgainDown(distance, event.getEventTime() * NANOS_PER_MILLI);
                 } else {
-                    currentStatus = STATUS_PULL_TO_REFRESH;
+                    movePull(distance);
                 }
-
-                // Offset the topMargin value of the pull-down head to achieve the pull-down effect
-                setHeaderTopMarign((int) (offsetY + hideHeaderHeight));
-
                 break;
             case MotionEvent.ACTION_UP:
-                if (currentStatus == STATUS_PULL_TO_REFRESH) {
-                    rollbackHeader(false);
+            case MotionEvent.ACTION_CANCEL:
+                isBeingDragged = false;
+                float velocity = 0;
+                if (action == MotionEvent.ACTION_UP && velocityTracker != null) {
+                    velocityTracker.computeCurrentVelocity(1000, maxFlingVelocity);
+                    velocity = velocityTracker.getYVelocity();
                 }
-                if (currentStatus == STATUS_RELEASE_TO_REFRESH) {
-                    rollBack2Header(true);
+                if (currentStatus == STATUS_AGAIN_DOWN) {
+                    finishAgainDown(velocity);
+                } else {
+                    finishPull(velocity);
                 }
                 break;
         }
-        if (currentStatus == STATUS_PULL_TO_REFRESH || currentStatus == STATUS_RELEASE_TO_REFRESH) {
-            // Make contentView lose focus and unable to be clicked
-            disableContentView();
-            return true;
+        return true;
+    }
+
+    @Override
+    public void requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        // A content without nested scrolling (ListView before Lollipop) would block pulls from the top
+        if (contentView == null || ViewCompat.isNestedScrollingEnabled(contentView)) {
+            super.requestDisallowInterceptTouchEvent(disallowIntercept);
         }
+    }
+
+    @Override
+    public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+        return isEnabled() && currentStatus == STATUS_REFRESH_FINISHED
+                && (nestedScrollAxes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0;
+    }
+
+    @Override
+    public void onNestedScrollAccepted(View child, View target, int axes) {
+        nestedScrollingParentHelper.onNestedScrollAccepted(child, target, axes);
+        isNestedPulling = false;
+        nestedFlingVelocity = 0;
+    }
+
+    @Override
+    public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+        // Pushing a pulled header back up collapses it before the content scrolls again
+        if (isNestedPulling && dy > 0 && pullDistance > 0) {
+            consumed[1] = dy > pullDistance ? (int) Math.ceil(pullDistance) : dy;
+            movePull(pullDistance - consumed[1]);
+        }
+    }
+
+    @Override
+    public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+        if (dyUnconsumed >= 0) return;
+
+        if (!isNestedPulling) { // The content reached its top, the rest of the scroll pulls the header out
+            if (currentStatus != STATUS_REFRESH_FINISHED) return;
+            startPull();
+            isNestedPulling = true;
+        }
+        movePull(pullDistance - dyUnconsumed);
+    }
+
+    @Override
+    public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+        if (!isNestedPulling) return false;
+
+        // A positive fling velocity scrolls the content down, the finger moves up
+        nestedFlingVelocity = -velocityY;
+        return pullDistance > 0;
+    }
+
+    @Override
+    public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
         return false;
     }
 
+    @Override
+    public void onStopNestedScroll(View target) {
+        nestedScrollingParentHelper.onStopNestedScroll(target);
+        if (isNestedPulling) {
+            isNestedPulling = false;
+            finishPull(nestedFlingVelocity);
+        }
+    }
+
+    @Override
+    public int getNestedScrollAxes() {
+        return nestedScrollingParentHelper.getNestedScrollAxes();
+    }
+
     /**
-     * Set topMargin parameter for header
+     * Start pulling the header once the finger moved down past the touch slop with the content at its top
      *
-     * @param margin
+     * @param y current vertical coordinate of the finger
      */
-    private void setHeaderTopMarign(int margin) {
-        headerLayoutParams.topMargin = margin;
-        header.setLayoutParams(headerLayoutParams);
+    private void checkStartPull(float y) {
+        if (currentStatus == STATUS_REFRESH_FINISHED && y - preDownY > touchSlop && !canContentViewScrollUp()) {
+            preDownY = y;
+            startPull();
+            isBeingDragged = true;
+        }
+    }
+
+    private void startPull() {
+        prewarm();
+        metrics.onGesture();
+        headerSpring.cancel();
+        pullDistance = 0;
+        isPullCanceled = false;
+        currentStatus = STATUS_PULL_TO_REFRESH;
     }
 
     /**
-     * Disable contentView, make it lose focus and not accept clicks
+     * Offset the pull-down head to achieve the pull-down effect
+     *
+     * @param distance finger travel since the pull started
      */
-    private void disableContentView() {
-        contentView.setPressed(false);
-        contentView.setFocusable(false);
-        contentView.setFocusableInTouchMode(false);
+    private void movePull(float distance) {
+        pullDistance = Math.max(0, distance);
+        int margin = (int) (pullDistance * STICK_RATIO + hideHeaderHeight);
+        // When the head is completely pulled out, the status is changed to release refresh
+        int status = margin > 0 ? STATUS_RELEASE_TO_REFRESH : STATUS_PULL_TO_REFRESH;
+        if (speculativeRefresh && !isPullCanceled && status != currentStatus) {
+            if (status == STATUS_RELEASE_TO_REFRESH) {
+                // Throttled and cached pulls are answered at once, there is nothing to start early
+                if (!isRefreshRunning && !isRefreshThrottled() && resultCache == null) {
+                    metrics.onRefreshStarted();
+                    startRefreshWork();
+                }
+            } else if (!isRevalidating) { // Pulled back, the refresh is not wanted any more
+                cancelRefreshWork();
+                isSpeculativeComplete = false;
+            }
+        }
+        currentStatus = status;
+        setHeaderTopMarign(margin);
     }
 
     /**
-     * Handle the event of pressing the screen again to play the game
+     * Settle the released header, a fast downward fling refreshes even if the header is not completely out
      *
-     * @param event
-     * @return
+     * @param velocity vertical finger speed at release, in pixels per second
      */
-    private boolean handleAgainDownAction(MotionEvent event) {
-        switch (event.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-                currentStatus = STATUS_AGAIN_DOWN;
-                preDownY = event.getRawY();
-                break;
-            case MotionEvent.ACTION_MOVE:
-                float currY = event.getRawY();
-                float distance = currY - preDownY;
-                float offsetY = distance * STICK_RATIO;
-                header.moveRacket(offsetY);
-                setHeaderTopMarign((int) (offsetY));
-                break;
-            case MotionEvent.ACTION_UP:
-                currentStatus = STATUS_REFRESHING;
-                if (isExecComplete) {
-                    rollbackHeader(false);
-                } else {
-                    rollBack2Header(false);
-                }
-                break;
+    private void finishPull(float velocity) {
+        float headerVelocity = velocity * STICK_RATIO;
+        if (isPullCanceled) {
+            rollbackHeader(false, headerVelocity);
+        } else if (currentStatus == STATUS_RELEASE_TO_REFRESH
+                || (currentStatus == STATUS_PULL_TO_REFRESH && velocity >= refreshFlingVelocity)) {
+            currentStatus = STATUS_RELEASE_TO_REFRESH;
+            rollBack2Header(true, headerVelocity);
+        } else if (currentStatus == STATUS_PULL_TO_REFRESH) {
+            rollbackHeader(false, headerVelocity);
         }
-        disableContentView();
-        return true;
     }
 
     /**
-     * The first execution in onTouch, so that the current scroll should be to the contentView, or should be pulled down.
+     * Pressing the screen again while refreshing plays the game
+     */
+    private void startAgainDown() {
+        metrics.onGesture();
+        touchPredictor.reset();
+        headerSpring.cancel();
+        currentStatus = STATUS_AGAIN_DOWN;
+        setHeaderTopMarign(0);
+    }
+
+    /**
+     * Feed the predictor with the positions batched into the event since the previous one, then its own
+     */
+    private void addTouchSamples(MotionEvent event) {
+        for (int i = 0, historySize = event.getHistorySize(); i < historySize; i++) {
+            touchPredictor.addSample(event.getHistoricalY(i), event.getHistoricalEventTime(i) * NANOS_PER_MILLI);
+        }
+        touchPredictor.addSample(event.getY(), event.getEventTime() * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Move the racket and the header with the finger, the racket is drawn where the finger is
+     * expected at the frame time
      *
-     * @param event
+     * @param distance       finger travel since the screen was pressed
+     * @param eventTimeNanos time the finger position was sampled
      */
-    private void checkAblePull(MotionEvent event) {
-        if (contentView != null) {
-            if (!canContentViewScrollUp()) {
-                if (!ableToPull) {
-                    preDownY = event.getRawY();
-                }
-                ableToPull = true;
-            } else { // Otherwise
-                if (headerLayoutParams.topMargin != hideHeaderHeight) {
-                    setHeaderTopMarign(hideHeaderHeight);
-                }
-                ableToPull = false;
-            }
+    private void moveAgainDown(float distance, long eventTimeNanos) {
+        float offsetY = distance * STICK_RATIO;
+        header.moveRacket(offsetY, touchPredictor.getVelocity() * STICK_RATIO, eventTimeNanos);
+        setHeaderTopMarign((int) (offsetY));
+    }
+
+    /**
+     * @param velocity vertical finger speed at release, in pixels per second
+     */
+    private void finishAgainDown(float velocity) {
+        currentStatus = STATUS_REFRESHING;
+        if (isExecComplete) {
+            rollbackHeader(false, velocity * STICK_RATIO);
         } else {
-            ableToPull = true;
+            rollBack2Header(false, velocity * STICK_RATIO);
         }
     }
 
+    /**
+     * Move the header top to the given position, the content follows right below it.
+     * Only the translation of both views changes, so no measure or layout pass is requested
+     *
+     * @param margin
+     */
+    private void setHeaderTopMarign(int margin) {
+        headerTopMargin = margin;
+        float translationY = margin - hideHeaderHeight;
+        header.setTranslationY(translationY);
+        if (contentView != null) {
+            contentView.setTranslationY(translationY);
+        }
+        header.setGameExposed(margin > hideHeaderHeight);
+    }
+
     public boolean canContentViewScrollUp() {
+        if (contentView == null) return false;
         if (Build.VERSION.SDK_INT < 14) {
             if (contentView instanceof AbsListView) {
                 final AbsListView absListView = (AbsListView) contentView;
@@ -279,6 +663,27 @@ public class FunGameRefreshView extends LinearLayout implements View.OnTouchList
         }
     }
 
+    /**
+     * Counters of the work done by this view, to compare the cost of pull gestures
+     *
+     * @return live metrics of this view
+     */
+    public RefreshMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Build the game and the curtain of the header now. They are otherwise built when the header is first
+     * pulled, which costs that pull a frame or two; call this once the screen is shown, e.g. from an idle handler.
+     */
+    public void prewarm() {
+        if (header.isPrepared()) return;
+
+        long startTime = System.nanoTime();
+        header.prepare();
+        metrics.onGameBuilt(System.nanoTime() - startTime);
+    }
+
     /**
      * Register a listener for pull-down refresh control.
      *
@@ -286,93 +691,223 @@ public class FunGameRefreshView extends LinearLayout implements View.OnTouchList
      */
     public void setOnRefreshListener(FunGameRefreshListener listener) {
         mListener = listener;
+        asyncListener = null;
     }
 
     /**
-     * After all refresh logic is completed, call this method to record it, otherwise it will always be in the refreshing state.
+     * Register a listener starting the refresh without blocking, it reports the end of the refresh
+     * through the {@link RefreshCompletion} it receives. Replaces the listener of {@link #setOnRefreshListener}.
+     *
+     * @param listener Implementation of the listener.
      */
-    public void finishRefreshing() {
-        header.postComplete();
-        isExecComplete = true;
-        if (currentStatus != STATUS_AGAIN_DOWN) {
-            rollbackHeader(true);
-        }
+    public void setOnAsyncRefreshListener(AsyncRefreshListener listener) {
+        asyncListener = listener;
+        mListener = null;
     }
 
     /**
-     * Roll back to the height of the header refresh control and trigger the background refresh task
+     * Run the blocking refresh listener on the given executor instead of the default one, a small pool
+     * of background priority threads shared by every refresh view. The global AsyncTask executor is never used,
+     * so a refresh does not wait behind unrelated tasks of the app.
+     *
+     * @param executor executor of the refresh work, null restores the default
      */
-    private void rollBack2Header(boolean isRefresh) {
-        ValueAnimator rbToHeaderAnimator = ValueAnimator.ofInt(headerLayoutParams.topMargin, 0);
-        long duration = (long) (headerLayoutParams.topMargin * 1.1f) >= 0 ? (long) (headerLayoutParams.topMargin * 1.1f) : 0;
-        rbToHeaderAnimator.setDuration(duration);
-        rbToHeaderAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        rbToHeaderAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                int marginValue = Integer.parseInt(animation.getAnimatedValue().toString());
-                setHeaderTopMarign(marginValue);
-            }
-        });
-
-        if (isRefresh)
-            rbToHeaderAnimator.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    new AsyncTask<Void, Void, Void>() {
+    public void setRefreshExecutor(Executor executor) {
+        refreshExecutor = executor;
+    }
 
-                        @Override
-                        protected void onPreExecute() {
-                            currentStatus = STATUS_REFRESHING;
-                            header.postStart();
-                        }
+    /**
+     * One pool runs the refreshes of every refresh view without an executor of its own
+     *
+     * @return default refresh executor
+     */
+    private static synchronized Executor getDefaultRefreshExecutor() {
+        if (defaultRefreshExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(REFRESH_THREAD_NUM, REFRESH_THREAD_NUM,
+                    REFRESH_THREAD_KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        private final AtomicInteger count = new AtomicInteger();
 
                         @Override
-                        protected Void doInBackground(Void... params) {
-                            if (mListener != null) {
-                                final long minTimes = 1500;
-                                long startTimes = System.currentTimeMillis();
-                                mListener.onPullRefreshing();
-                                long diffTimes = System.currentTimeMillis() - startTimes;
-                                if (diffTimes < minTimes) {
-                                    SystemClock.sleep(minTimes - diffTimes);
+                        public Thread newThread(final Runnable runnable) {
+                            return new Thread(new Runnable() {
+                                @Override
+                                public void run() {
+                                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                    runnable.run();
                                 }
-                            }
-                            return null;
+                            }, "FunGameRefresh #" + count.incrementAndGet());
                         }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            defaultRefreshExecutor = executor;
+        }
+        return defaultRefreshExecutor;
+    }
 
-                        @Override
-                        protected void onPostExecute(Void aVoid) {
-                            if (mListener != null)
-                                mListener.onRefreshComplete();
-                            finishRefreshing();
-                        }
-                    }.execute();
-                }
-            });
-        header.back2StartPoint(duration);
-        rbToHeaderAnimator.start();
+    /**
+     * Keep the game on screen for at least the given time once a refresh started, even when the data
+     * arrives earlier. The data is still delivered to {@code onRefreshComplete} as soon as it is ready,
+     * only the collapse of the header waits.
+     *
+     * @param minRefreshTimeMillis minimum display time in milliseconds, 0 collapses as soon as the refresh is done
+     */
+    public void setMinRefreshTime(long minRefreshTimeMillis) {
+        minRefreshTime = minRefreshTimeMillis;
     }
 
+    /**
+     * Cancel a refresh once it runs longer than the timeout
+     *
+     * @param timeoutMillis maximum refresh duration in milliseconds, 0 for no timeout
+     */
+    public void setRefreshTimeout(long timeoutMillis) {
+        refreshTimeout = timeoutMillis;
+    }
+
+    /**
+     * Throttle the refreshes: a pull within the interval after the last completed refresh shows the game
+     * for the minimum refresh time and collapses, the listener is not called again.
+     *
+     * @param minRefreshIntervalMillis minimum time between two refreshes in milliseconds, 0 refreshes on every pull
+     */
+    public void setMinRefreshInterval(long minRefreshIntervalMillis) {
+        minRefreshInterval = minRefreshIntervalMillis;
+    }
+
+    /**
+     * Answer pulls with the cached result of the last refresh at once: the header collapses after the
+     * minimum refresh time while the listener refreshes in the background. A pull while that refresh is
+     * still running waits for it instead of starting another one.
+     *
+     * @param cache cache of the refreshed data, null to always wait for the listener
+     */
+    public void setRefreshResultCache(RefreshResultCache cache) {
+        resultCache = cache;
+    }
+
+    /**
+     * Report how long the touches playing the game take to reach the screen
+     *
+     * @param listener touch-to-frame latency listener, null to stop reporting
+     */
+    public void setTouchLatencyListener(TouchLatencyListener listener) {
+        header.setTouchLatencyListener(listener);
+    }
+
+    /**
+     * @return true when the last refresh completed less than the minimum refresh interval ago
+     */
+    private boolean isRefreshThrottled() {
+        return minRefreshInterval > 0 && lastRefreshTime != 0
+                && SystemClock.uptimeMillis() - lastRefreshTime < minRefreshInterval;
+    }
+
+    /**
+     * Stop the running refresh and collapse the header, or when the refresh started before the release,
+     * let the release collapse it. The blocking listener's thread is interrupted,
+     * the async listener is told with {@link AsyncRefreshListener#onRefreshCancelled()}, and neither
+     * gets {@code onRefreshComplete}.
+     */
+    public void cancelRefresh() {
+        if (!cancelRefreshWork()) return;
+
+        // A cached result may already be showing, its header must not collapse a second time later
+        removeCallbacks(finishRefreshingTask);
+        isSpeculativeComplete = false;
+        // A refresh started before the release leaves the header to the finger, the release collapses it
+        if (currentStatus == STATUS_PULL_TO_REFRESH || currentStatus == STATUS_RELEASE_TO_REFRESH) {
+            isPullCanceled = true;
+        } else if (currentStatus == STATUS_REFRESHING) {
+            isExecComplete = true;
+            rollbackHeader(false, 0);
+        } else if (currentStatus == STATUS_AGAIN_DOWN) {
+            isExecComplete = true;
+        }
+    }
+
+    /**
+     * Start the refresh as soon as the pull crosses into {@link #STATUS_RELEASE_TO_REFRESH}, so the refresh
+     * overlaps the rest of the gesture and the release animation. Pulling back under the threshold before
+     * the release cancels it again, like {@link #cancelRefresh()} does.
+     *
+     * @param enabled true to start refreshing before the release, false to wait for it (the default)
+     */
+    public void setSpeculativeRefreshEnabled(boolean enabled) {
+        speculativeRefresh = enabled;
+    }
+
+    /**
+     * Stop the work of the running refresh, the header is left as it is
+     *
+     * @return false when no refresh was running
+     */
+    private boolean cancelRefreshWork() {
+        if (!isRefreshRunning) return false;
+
+        isRefreshRunning = false;
+        isRevalidating = false;
+        refreshId++;
+        removeCallbacks(refreshTimeoutTask);
+        if (refreshTask != null) {
+            refreshTask.cancel(true);
+            refreshTask = null;
+        }
+        if (asyncListener != null) {
+            asyncListener.onRefreshCancelled();
+        }
+        return true;
+    }
+
+    /**
+     * After all refresh logic is completed, call this method to record it, otherwise it will always be in the refreshing state.
+     */
+    public void finishRefreshing() {
+        removeCallbacks(finishRefreshingTask);
+        header.postComplete();
+        isExecComplete = true;
+        if (currentStatus != STATUS_AGAIN_DOWN) {
+            rollbackHeader(true, 0);
+        }
+    }
+
+    /**
+     * Roll back to the height of the header refresh control and trigger the background refresh task
+     *
+     * @param isRefresh start the refresh task once the header settled
+     * @param velocity  start speed of the header, in pixels per second
+     */
+    private void rollBack2Header(boolean isRefresh, float velocity) {
+        settleAction = isRefresh ? SETTLE_REFRESH : SETTLE_HOLD;
+        // The racket returns over the time the header takes to settle
+        header.back2StartPoint(HeaderSpring.getSettleDuration(headerTopMargin, 0, velocity));
+        headerSpring.start(headerTopMargin, 0, velocity, 0);
+    }
 
     /**
      * Roll back the pull-down refresh header control
+     *
+     * @param isDelay  wait before collapsing, to show the finished text
+     * @param velocity start speed of the header, in pixels per second
      */
-    private void rollbackHeader(boolean isDelay) {
-        tempHeaderTopMargin = headerLayoutParams.topMargin;
-        ValueAnimator rbAnimator = ValueAnimator.ofInt(0, header.getHeight() + tempHeaderTopMargin);
-        rbAnimator.setDuration(300);
-        rbAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        rbAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                int marginValue = Integer.parseInt(animation.getAnimatedValue().toString());
-                setHeaderTopMarign(-marginValue + tempHeaderTopMargin);
-            }
-        });
-        rbAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
+    private void rollbackHeader(boolean isDelay, float velocity) {
+        settleAction = SETTLE_COLLAPSE;
+        headerSpring.start(headerTopMargin, hideHeaderHeight, velocity, isDelay ? COLLAPSE_DELAY : 0);
+    }
+
+    /**
+     * The header reached the resting position of the last settle
+     */
+    private void onHeaderSettled() {
+        switch (settleAction) {
+            case SETTLE_REFRESH:
+                if (isPullCanceled) { // Canceled while the released header was settling
+                    rollbackHeader(false, 0);
+                } else {
+                    startRefreshTask();
+                }
+                break;
+            case SETTLE_COLLAPSE:
                 if (currentStatus == STATUS_PULL_TO_REFRESH || currentStatus == STATUS_REFRESH_FINISHED) {
                     currentStatus = STATUS_REFRESH_FINISHED;
                     return;
@@ -380,11 +915,165 @@ public class FunGameRefreshView extends LinearLayout implements View.OnTouchList
                 currentStatus = STATUS_REFRESH_FINISHED;
                 isExecComplete = false;
                 header.postEnd();
+                break;
+        }
+    }
+
+    /**
+     * The header settled at its refreshing position: show the game and start the refresh,
+     * unless it was started when the pull crossed the release threshold
+     */
+    private void startRefreshTask() {
+        currentStatus = STATUS_REFRESHING;
+        header.postStart();
+        refreshStartTime = SystemClock.uptimeMillis();
+
+        if (isSpeculativeComplete) {
+            isSpeculativeComplete = false;
+            postDelayed(finishRefreshingTask, minRefreshTime);
+        } else if (isRevalidating) { // Wait for the refresh in flight instead of starting another one
+            isRevalidating = false;
+            metrics.onRefreshDeduped();
+        } else if (isRefreshThrottled()) {
+            metrics.onRefreshThrottled();
+            postDelayed(finishRefreshingTask, minRefreshTime);
+        } else if (!isRefreshRunning) {
+            metrics.onRefreshStarted();
+            if (resultCache != null) {
+                if (resultCache.deliverCachedResult()) {
+                    metrics.onCacheHit();
+                    isRevalidating = true;
+                    postDelayed(finishRefreshingTask, minRefreshTime);
+                } else {
+                    metrics.onCacheMiss();
+                }
             }
-        });
-        if (isDelay)
-            rbAnimator.setStartDelay(500);
-        rbAnimator.start();
+            startRefreshWork();
+        }
+    }
+
+    /**
+     * Start the refresh listener, a blocking one runs in the background
+     */
+    private void startRefreshWork() {
+        final int id = ++refreshId;
+        isRefreshRunning = true;
+        if (refreshTimeout > 0) {
+            postDelayed(refreshTimeoutTask, refreshTimeout);
+        }
+
+        if (asyncListener != null) {
+            asyncListener.onPullRefreshing(new AsyncRefreshCompletion(this, id));
+            return;
+        }
+
+        refreshTask = new RefreshTask(this, mListener, id)
+                .executeOnExecutor(refreshExecutor != null ? refreshExecutor : getDefaultRefreshExecutor());
+    }
+
+    /**
+     * The listener finished the refresh, ignored when that refresh was canceled meanwhile
+     *
+     * @param id identifier of the finished refresh
+     */
+    private void onRefreshTaskFinished(int id) {
+        if (!isRefreshRunning || id != refreshId) return;
+
+        isRefreshRunning = false;
+        refreshTask = null;
+        lastRefreshTime = SystemClock.uptimeMillis();
+        removeCallbacks(refreshTimeoutTask);
+        if (asyncListener != null) {
+            asyncListener.onRefreshComplete();
+        } else if (mListener != null) {
+            mListener.onRefreshComplete();
+        }
+
+        if (isRevalidating) { // The header already showed the cached result
+            isRevalidating = false;
+            return;
+        }
+
+        if (currentStatus != STATUS_REFRESHING && currentStatus != STATUS_AGAIN_DOWN) {
+            // Started before the release, the header shows the game once it settled
+            isSpeculativeComplete = true;
+            return;
+        }
+
+        // The game stays for the minimum display time, the data is already delivered
+        long remainingTime = minRefreshTime - (SystemClock.uptimeMillis() - refreshStartTime);
+        if (remainingTime > 0) {
+            postDelayed(finishRefreshingTask, remainingTime);
+        } else {
+            finishRefreshing();
+        }
+    }
+
+    /**
+     * Runs the blocking listener. The view is only weakly reachable from the task, a listener still
+     * running after the view was detached does not keep the view and its activity alive.
+     */
+    private static class RefreshTask extends AsyncTask<Void, Void, Void> {
+
+        private final WeakReference<FunGameRefreshView> viewRef;
+
+        private final FunGameRefreshListener listener;
+
+        private final int id;
+
+        RefreshTask(FunGameRefreshView view, FunGameRefreshListener listener, int id) {
+            viewRef = new WeakReference<>(view);
+            this.listener = listener;
+            this.id = id;
+        }
+
+        @Override
+        protected Void doInBackground(Void... params) {
+            if (listener != null) {
+                listener.onPullRefreshing();
+            }
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(Void aVoid) {
+            FunGameRefreshView view = viewRef.get();
+            if (view != null) {
+                view.onRefreshTaskFinished(id);
+            }
+        }
+    }
+
+    /**
+     * Completion handed to the async listener, it may be kept by the listener's request long after the
+     * refresh was canceled, so it only holds the view weakly
+     */
+    private static class AsyncRefreshCompletion implements RefreshCompletion, Runnable {
+
+        private final WeakReference<FunGameRefreshView> viewRef;
+
+        private final int id;
+
+        AsyncRefreshCompletion(FunGameRefreshView view, int id) {
+            viewRef = new WeakReference<>(view);
+            this.id = id;
+        }
+
+        @Override
+        public void complete() {
+            FunGameRefreshView view = viewRef.get();
+            if (view != null) {
+                view.post(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            FunGameRefreshView view = viewRef.get();
+            if (view != null) {
+                view.onRefreshTaskFinished(id);
+            }
+        }
     }
 
     /**
@@ -449,4 +1138,61 @@ public class FunGameRefreshView extends LinearLayout implements View.OnTouchList
 
         void onRefreshComplete();
     }
+
+    /**
+     * Listener for non-blocking pull-down refresh, for refresh work that is already asynchronous
+     * such as a request of a non-blocking HTTP client. All methods are called on the main thread.
+     */
+    public interface AsyncRefreshListener {
+        /**
+         * Start refreshing without blocking, then report the end through the completion
+         *
+         * @param completion call {@link RefreshCompletion#complete()} from any thread once the refresh is done
+         */
+        void onPullRefreshing(RefreshCompletion completion);
+
+        void onRefreshComplete();
+
+        /**
+         * The refresh was canceled by {@link #cancelRefresh()} or its timeout, the completion no longer has any effect
+         */
+        void onRefreshCancelled();
+    }
+
+    /**
+     * Cache of the refreshed data, lets a pull show the last result while the listener refreshes it
+     */
+    public interface RefreshResultCache {
+        /**
+         * Show the cached result, called on the main thread when a pull starts a refresh
+         *
+         * @return false when nothing is cached yet, the pull then waits for the listener
+         */
+        boolean deliverCachedResult();
+    }
+
+    /**
+     * Receives the touch-to-frame latency of the touches playing the game
+     */
+    public interface TouchLatencyListener {
+        /**
+         * Called for each frame moving the game controller, with the newest touch event it applied.
+         * Runs on the thread drawing the game: the main thread, or the render thread of the texture mode.
+         *
+         * @param latencyNanos    time from the touch event to the frame
+         * @param predictionNanos part of that time made up by drawing the controller where the finger is
+         *                        expected, the controller lags the finger by the difference
+         */
+        void onTouchToFrame(long latencyNanos, long predictionNanos);
+    }
+
+    /**
+     * Handle reporting the end of one asynchronous refresh
+     */
+    public interface RefreshCompletion {
+        /**
+         * Finish the refresh, may be called from any thread, only the first call of a running refresh counts
+         */
+        void complete();
+    }
 }
@@ -2,7 +2,7 @@ package com.hitomi.refresh.view;
 
 import android.animation.ValueAnimator;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -13,7 +13,10 @@ import android.view.View;
 import android.view.WindowManager;
 import android.view.animation.AccelerateDecelerateInterpolator;
 
-import com.hitomi.refresh.R;
+import com.hitomi.refresh.game.BoundsGameCanvas;
+import com.hitomi.refresh.game.ClipGameCanvas;
+import com.hitomi.refresh.game.FunGame;
+import com.hitomi.refresh.game.GameLoop;
 
 /**
  * Created by Hitomis on 2016/3/9.
@@ -21,23 +24,30 @@ import com.hitomi.refresh.R;
  */
 abstract class FunGameView extends View {
 
-    static final int STATUS_GAME_PREPAR = 0;
+    static final int STATUS_GAME_PREPAR = FunGame.STATUS_GAME_PREPAR;
 
-    static final int STATUS_GAME_PLAY = 1;
+    static final int STATUS_GAME_PLAY = FunGame.STATUS_GAME_PLAY;
 
-    static final int STATUS_GAME_OVER = 2;
+    static final int STATUS_GAME_OVER = FunGame.STATUS_GAME_OVER;
 
-    static final int STATUS_GAME_FINISHED = 3;
+    static final int STATUS_GAME_FINISHED = FunGame.STATUS_GAME_FINISHED;
 
     /**
      * Default width size of dividing line
      */
-    static final float DIVIDING_LINE_SIZE = 1.f;
+    static final float DIVIDING_LINE_SIZE = FunGame.DIVIDING_LINE_SIZE;
 
     /**
      * Ratio of view height to screen height
      */
-    static final float VIEW_HEIGHT_RATIO = .161f;
+    static final float VIEW_HEIGHT_RATIO = FunGame.VIEW_HEIGHT_RATIO;
+
+    /**
+     * Default colors of the left, middle and right game models
+     */
+    static final int DEFAULT_LEFT_MODEL_COLOR = Color.rgb(0, 0, 0);
+    static final int DEFAULT_MIDDLE_MODEL_COLOR = Color.BLACK;
+    static final int DEFAULT_RIGHT_MODEL_COLOR = Color.parseColor("#A5A5A5");
 
     private String textGameOver;
     private String textLoading;
@@ -47,28 +57,182 @@ abstract class FunGameView extends View {
 
     protected TextPaint textPaint;
 
-    protected float controllerPosition;
+    protected int screenWidth, screenHeight;
 
-    protected int controllerSize;
+    protected int lModelColor, rModelColor, mModelColor;
 
-    protected int screenWidth, screenHeight;
+    /**
+     * Simulation state of the game, this view only renders it
+     */
+    protected FunGame game;
 
-    protected int status = STATUS_GAME_PREPAR;
+    private AndroidGameCanvas gameCanvas;
 
-    protected int lModelColor, rModelColor, mModelColor;
+    /**
+     * Drops the moving entities hidden by the curtain before they reach {@link #gameCanvas}
+     */
+    private final ClipGameCanvas clipCanvas = new ClipGameCanvas();
+
+    /**
+     * Band of the view not hidden by the curtain, the whole view unless the header says otherwise
+     */
+    private float uncoveredTop, uncoveredBottom = Float.MAX_VALUE;
+
+    /**
+     * Boundary, prompt text and static game entities, redrawn only when one of them changes
+     */
+    private Bitmap staticLayer;
+
+    private Canvas staticLayerCanvas;
+
+    /**
+     * Whether the view content of the static layer is up to date
+     */
+    private boolean staticLayerValid;
+
+    /**
+     * Static layer version of the game drawn into the static layer
+     */
+    private int drawnStaticLayerVersion;
+
+    /**
+     * Bounds of the moving entities of the frame to draw and of the previous frame
+     */
+    private BoundsGameCanvas frameBounds = new BoundsGameCanvas(), previousFrameBounds = new BoundsGameCanvas();
+
+    /**
+     * Whether the next frame has to redraw the whole view instead of the moving entities
+     */
+    private boolean fullInvalidatePending;
+
+    /**
+     * Guards the game state when frames are rendered off the main thread
+     */
+    private final Object frameLock = new Object();
+
+    /**
+     * Moves the controller back to its starting point, created once and restarted by every release
+     */
+    private ValueAnimator controllerAnimator;
+
+    private float controllerStartPosition;
+
+    /**
+     * Controller position of the last input since the previous frame, touch events only buffer it
+     * and each frame applies the latest one
+     */
+    private float pendingControllerPosition;
+
+    /**
+     * Finger velocity in pixels per second and sampling time of the buffered input, to extrapolate
+     * it to the frame time
+     */
+    private float pendingControllerVelocity;
+
+    private long pendingEventTimeNanos;
+
+    private boolean isControllerPending;
+
+    /**
+     * Whether the controller was drawn ahead of the last input, it settles back if no input follows
+     */
+    private boolean isPredictionSettling;
+
+    /**
+     * Whether a single frame is posted to redraw state changes while the game loop is stopped
+     */
+    private boolean isRenderFramePosted;
+
+    /**
+     * Frame work counters of the refresh view owning this game, null when there is none
+     */
+    private RefreshMetrics metrics;
+
+    private FunGameRefreshView.TouchLatencyListener touchLatencyListener;
+
+    private final FrameTicker.FrameListener frameListener = new FrameTicker.FrameListener() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (metrics != null) metrics.onGameFrame();
+            advanceGame(frameTimeNanos);
+            invalidateFrame();
+        }
+    };
+
+    /**
+     * One-shot frame applying the buffered input and redrawing once, however many changes were requested
+     */
+    private final FrameTicker.FrameListener renderFrameListener = new FrameTicker.FrameListener() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            FrameTicker.getInstance().unregister(this);
+            if (metrics != null) metrics.onGameFrame();
+            synchronized (frameLock) {
+                isRenderFramePosted = false;
+                applyPendingInput(frameTimeNanos);
+                // A loop started meanwhile redraws on its own frames
+                if (!gameLoop.isActive()) {
+                    renderer.requestRender();
+                }
+                if (isPredictionSettling) {
+                    invalidateGame();
+                }
+            }
+        }
+    };
+
+    /**
+     * Default renderer, frames are drawn by this view on the main thread
+     */
+    private final GameRenderer viewRenderer = new GameRenderer() {
+        @Override
+        public void startFrames() {
+            fullInvalidatePending = true;
+            FrameTicker.getInstance().register(frameListener);
+        }
+
+        @Override
+        public void stopFrames() {
+            FrameTicker.getInstance().unregister(frameListener);
+        }
+
+        @Override
+        public void requestRender() {
+            fullInvalidatePending = true;
+            if (metrics != null) metrics.onGameInvalidate();
+            postInvalidate();
+        }
+    };
+
+    private GameRenderer renderer = viewRenderer;
+
+    private final GameLoop gameLoop = new GameLoop(new GameLoop.FrameScheduler() {
+        @Override
+        public void startFrames() {
+            renderer.startFrames();
+        }
+
+        @Override
+        public void stopFrames() {
+            renderer.stopFrames();
+        }
+    });
 
     public FunGameView(Context context, AttributeSet attrs, int defStyleAttr) {
+        this(context, attrs, defStyleAttr, FunGameConfig.fromAttributes(context, attrs));
+    }
+
+    protected FunGameView(Context context, AttributeSet attrs, int defStyleAttr, FunGameConfig config) {
         super(context, attrs, defStyleAttr);
 
-        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.FunGame);
-        lModelColor = typedArray.getColor(R.styleable.FunGame_left_model_color, Color.rgb(0, 0, 0));
-        mModelColor = typedArray.getColor(R.styleable.FunGame_middle_model_color, Color.BLACK);
-        rModelColor = typedArray.getColor(R.styleable.FunGame_right_model_color, Color.parseColor("#A5A5A5"));
-        typedArray.recycle();
+        lModelColor = config.getLeftModelColor();
+        mModelColor = config.getMiddleModelColor();
+        rModelColor = config.getRightModelColor();
 
         initBaseTools();
         initBaseConfigParams(context);
-        initConcreteView();
+        game = createGame();
+        game.setModelColors(lModelColor, mModelColor, rModelColor);
     }
 
     protected void initBaseTools() {
@@ -77,27 +241,114 @@ abstract class FunGameView extends View {
 
         mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mPaint.setStrokeWidth(1.f);
+        mPaint.setColor(Color.parseColor("#606060"));
+
+        gameCanvas = new AndroidGameCanvas();
+        clipCanvas.setTarget(gameCanvas);
     }
 
     protected void initBaseConfigParams(Context context) {
-        controllerPosition = DIVIDING_LINE_SIZE;
+        DisplayMetrics screenMetrics = getScreenMetrics(context);
+        screenWidth = screenMetrics.widthPixels;
+        screenHeight = screenMetrics.heightPixels;
+    }
+
+    /**
+     * Create the simulation of the concrete game, called once from the constructor
+     * @return game state rendered by this view
+     */
+    protected abstract FunGame createGame();
+
+    /**
+     * Draw the moving game entities
+     * @param canvas default canvas
+     */
+    private void drawGame(Canvas canvas) {
+        gameCanvas.setCanvas(canvas);
+        game.renderDynamic(clipCanvas, gameLoop.getInterpolation());
+        gameCanvas.setCanvas(null);
+    }
 
-        screenWidth = getScreenMetrics(context).widthPixels;
-        screenHeight = getScreenMetrics(context).heightPixels;
+    /**
+     * Redraw the static layer if its content or the view size changed
+     * @return false when the view has no size yet and there is no layer to draw
+     */
+    private boolean updateStaticLayer() {
+        int width = getWidth(), height = getHeight();
+        if (width == 0 || height == 0) return false;
+
+        if (staticLayer == null || staticLayer.getWidth() != width || staticLayer.getHeight() != height) {
+            staticLayerValid = false;
+            staticLayer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            staticLayerCanvas = new Canvas(staticLayer);
+        }
+        if (!isStaticLayerStale()) return true;
+
+        staticLayer.eraseColor(Color.TRANSPARENT);
+        drawBoundary(staticLayerCanvas);
+        drawText(staticLayerCanvas);
+        gameCanvas.setCanvas(staticLayerCanvas);
+        game.renderStatic(gameCanvas);
+        gameCanvas.setCanvas(null);
+
+        staticLayerValid = true;
+        drawnStaticLayerVersion = game.getStaticLayerVersion();
+        return true;
     }
 
-    protected abstract void initConcreteView();
+    private boolean isStaticLayerStale() {
+        return !staticLayerValid || drawnStaticLayerVersion != game.getStaticLayerVersion();
+    }
 
-    protected abstract void drawGame(Canvas canvas);
+    /**
+     * Drop the static layer, it is not recycled as a recorded display list may still refer to it
+     */
+    private void releaseStaticLayer() {
+        staticLayer = null;
+        staticLayerCanvas = null;
+        staticLayerValid = false;
+    }
 
-    protected abstract void resetConfigParams();
+    /**
+     * Invalidate the area the next frame changes: the moving entities of the last frame and of
+     * the next one, or the whole view when the static layer changed too
+     */
+    private void invalidateFrame() {
+        synchronized (frameLock) {
+            if (clipCanvas.isClipEmpty()) return;
+
+            BoundsGameCanvas bounds = previousFrameBounds;
+            previousFrameBounds = frameBounds;
+            frameBounds = bounds;
+            frameBounds.reset();
+            game.renderDynamic(frameBounds, gameLoop.getInterpolation());
+
+            if (fullInvalidatePending || isStaticLayerStale()) {
+                fullInvalidatePending = false;
+                if (metrics != null) metrics.onGameInvalidate();
+                invalidate();
+            } else {
+                previousFrameBounds.union(frameBounds);
+                if (previousFrameBounds.isEmpty()) return;
+
+                // One more pixel on each side for the anti-aliased edges, nothing outside the uncovered band
+                float top = Math.max(previousFrameBounds.getTop() - 1, uncoveredTop);
+                float bottom = Math.min(previousFrameBounds.getBottom() + 1, uncoveredBottom);
+                if (top >= bottom) return;
+                if (metrics != null) metrics.onGameInvalidate();
+                invalidate((int) Math.floor(previousFrameBounds.getLeft()) - 1,
+                        (int) Math.floor(top),
+                        (int) Math.ceil(previousFrameBounds.getRight()) + 1,
+                        (int) Math.ceil(bottom));
+            }
+        }
+    }
 
     /**
      * Draw dividing line
      * @param canvas default canvas
      */
     private void drawBoundary(Canvas canvas) {
-        mPaint.setColor(Color.parseColor("#606060"));
         canvas.drawLine(0, 0, screenWidth, 0, mPaint);
         canvas.drawLine(0, getMeasuredHeight(), screenWidth, getMeasuredHeight(), mPaint);
     }
@@ -109,9 +360,150 @@ abstract class FunGameView extends View {
 
     @Override
     protected void onDraw(Canvas canvas) {
-        drawBoundary(canvas);
-        drawText(canvas);
-        drawGame(canvas);
+        if (renderer == viewRenderer) {
+            drawFrame(canvas);
+        }
+    }
+
+    /**
+     * Draw the whole game area
+     * @param canvas target canvas, the view canvas or a render thread surface
+     */
+    void drawFrame(Canvas canvas) {
+        synchronized (frameLock) {
+            if (clipCanvas.isClipEmpty()) { // The curtain hides the game, only the dividing lines show
+                drawBoundary(canvas);
+                return;
+            }
+
+            boolean isClipped = uncoveredTop > 0 || uncoveredBottom < getHeight();
+            int saveCount = canvas.save();
+            if (isClipped) {
+                canvas.clipRect(0, uncoveredTop, getWidth(), uncoveredBottom);
+            }
+            if (updateStaticLayer()) {
+                canvas.drawBitmap(staticLayer, 0, 0, null);
+            }
+            drawGame(canvas);
+            canvas.restoreToCount(saveCount);
+
+            if (isClipped) { // Outside the band, clipped away from the static layer
+                drawBoundary(canvas);
+            }
+        }
+    }
+
+    /**
+     * Set the band of the game the curtain leaves uncovered, drawing is clipped to it and skipped while it is empty
+     * @param top top of the band in view coordinates
+     * @param bottom bottom of the band in view coordinates, not below top when the curtain is closed
+     */
+    void setUncoveredArea(float top, float bottom) {
+        synchronized (frameLock) {
+            if (uncoveredTop == top && uncoveredBottom == bottom) return;
+
+            uncoveredTop = top;
+            uncoveredBottom = bottom;
+            clipCanvas.setClip(top, bottom);
+            // The band moved, the dirty bounds of the last frame no longer cover what changed
+            fullInvalidatePending = true;
+            invalidateGame();
+        }
+    }
+
+    /**
+     * Run as many fixed simulation steps as the elapsed frame time requires
+     * @param frameTimeNanos vsync frame time
+     */
+    void advanceGame(long frameTimeNanos) {
+        synchronized (frameLock) {
+            applyPendingInput(frameTimeNanos);
+            int steps = gameLoop.advance(frameTimeNanos);
+            for (int i = 0; i < steps && game.isRunning(); i++) {
+                game.step();
+            }
+            gameLoop.setRunning(game.isRunning());
+        }
+    }
+
+    /**
+     * Replace the way frames are put on screen
+     * @param renderer new renderer, null restores drawing in this view
+     */
+    void setRenderer(GameRenderer renderer) {
+        synchronized (frameLock) {
+            GameRenderer newRenderer = renderer == null ? viewRenderer : renderer;
+            if (this.renderer == newRenderer) return;
+
+            if (gameLoop.isActive()) {
+                this.renderer.stopFrames();
+                newRenderer.startFrames();
+            }
+            this.renderer = newRenderer;
+            newRenderer.requestRender();
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        synchronized (frameLock) {
+            gameLoop.setWindowFocused(hasWindowFocus());
+            gameLoop.setVisible(isShown());
+            gameLoop.setAttached(true);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        synchronized (frameLock) {
+            gameLoop.setAttached(false);
+            releaseStaticLayer();
+            if (isRenderFramePosted) {
+                isRenderFramePosted = false;
+                FrameTicker.getInstance().unregister(renderFrameListener);
+            }
+        }
+        if (controllerAnimator != null) {
+            controllerAnimator.cancel();
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        synchronized (frameLock) {
+            gameLoop.setVisible(isShown() && getWindowVisibility() == VISIBLE);
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        synchronized (frameLock) {
+            gameLoop.setVisible(isShown() && visibility == VISIBLE);
+        }
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        synchronized (frameLock) {
+            gameLoop.setWindowFocused(hasWindowFocus);
+        }
+    }
+
+    /**
+     * Set whether the game is uncovered by the header's container,
+     * a collapsed header stops the game loop until it is pulled out again
+     * @param exposed true when at least part of the game is on screen
+     */
+    public void setExposed(boolean exposed) {
+        synchronized (frameLock) {
+            gameLoop.setExposed(exposed);
+        }
     }
 
     /**
@@ -119,7 +511,7 @@ abstract class FunGameView extends View {
      * @param canvas default canvas
      */
     private void drawText(Canvas canvas) {
-        switch (status) {
+        switch (game.getStatus()) {
             case STATUS_GAME_PREPAR:
             case STATUS_GAME_PLAY:
                 textPaint.setTextSize(50);
@@ -153,14 +545,60 @@ abstract class FunGameView extends View {
      * @param distance distance moved
      */
     public void moveController(float distance) {
-        float maxDistance = (getMeasuredHeight() -  2 * DIVIDING_LINE_SIZE - controllerSize);
+        moveController(distance, 0, System.nanoTime());
+    }
+
+    /**
+     * Move the controller on the next frame to where the finger is expected at the frame time
+     * @param distance distance moved when the touch event was sampled
+     * @param velocity speed of the finger in pixels per second, 0 to draw the distance as it is
+     * @param eventTimeNanos time the touch event was sampled, on the {@link System#nanoTime()} clock
+     */
+    void moveController(float distance, float velocity, long eventTimeNanos) {
+        synchronized (frameLock) {
+            pendingControllerPosition = distance;
+            pendingControllerVelocity = velocity;
+            pendingEventTimeNanos = eventTimeNanos;
+            isControllerPending = true;
+            invalidateGame();
+        }
+        if (metrics != null) metrics.onControllerInput();
+    }
+
+    /**
+     * Move the controller to the last buffered input, called once per frame under the frame lock
+     * @param frameTimeNanos time of the frame drawing the controller
+     */
+    private void applyPendingInput(long frameTimeNanos) {
+        if (!isControllerPending) {
+            if (isPredictionSettling) { // No input for a whole frame, the finger stopped where it was last seen
+                isPredictionSettling = false;
+                game.moveController(pendingControllerPosition);
+            }
+            return;
+        }
 
-        if (distance > maxDistance) {
-            distance = maxDistance;
+        isControllerPending = false;
+        long predictionNanos = pendingControllerVelocity == 0 ? 0
+                : TouchPredictor.getPredictionNanos(pendingEventTimeNanos, frameTimeNanos);
+        game.moveController(pendingControllerPosition + pendingControllerVelocity * predictionNanos / 1e9f);
+        isPredictionSettling = predictionNanos > 0;
+
+        long latencyNanos = frameTimeNanos - pendingEventTimeNanos;
+        if (touchLatencyListener != null) {
+            touchLatencyListener.onTouchToFrame(latencyNanos, predictionNanos);
+        }
+        if (metrics != null && renderer == viewRenderer) { // Texture frames run on the render thread
+            metrics.onControllerApplied(latencyNanos, predictionNanos);
         }
+    }
 
-        controllerPosition = distance;
-        postInvalidate();
+    void setMetrics(RefreshMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    void setTouchLatencyListener(FunGameRefreshView.TouchLatencyListener touchLatencyListener) {
+        this.touchLatencyListener = touchLatencyListener;
     }
 
     /**
@@ -168,17 +606,29 @@ abstract class FunGameView extends View {
      * @param duration duration
      */
     public void moveController2StartPoint(long duration) {
-        ValueAnimator moveAnimator = ValueAnimator.ofFloat(controllerPosition, DIVIDING_LINE_SIZE);
-        moveAnimator.setDuration(duration);
-        moveAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        moveAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                controllerPosition = Float.parseFloat(animation.getAnimatedValue().toString());
-                postInvalidate();
-            }
-        });
-        moveAnimator.start();
+        if (controllerAnimator == null) {
+            controllerAnimator = ValueAnimator.ofFloat(0.f, 1.f);
+            controllerAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
+            controllerAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    // The interpolated fraction avoids boxing the animated value on every tick
+                    float fraction = animation.getAnimatedFraction();
+                    synchronized (frameLock) {
+                        game.setControllerPosition(controllerStartPosition + (DIVIDING_LINE_SIZE - controllerStartPosition) * fraction);
+                        invalidateGame();
+                    }
+                }
+            });
+        }
+        controllerAnimator.cancel();
+        synchronized (frameLock) {
+            isControllerPending = false; // The finger is gone, older input must not move the controller again
+            isPredictionSettling = false;
+        }
+        controllerStartPosition = game.getControllerPosition();
+        controllerAnimator.setDuration(duration);
+        controllerAnimator.start();
     }
 
     /**
@@ -186,13 +636,41 @@ abstract class FunGameView extends View {
      * @param status status code
      */
     public void postStatus(int status) {
-        this.status = status;
+        synchronized (frameLock) {
+            game.setStatus(status);
+            gameLoop.setRunning(game.isRunning());
+
+            invalidateGame();
+        }
+    }
 
-        if (status == STATUS_GAME_PREPAR) {
-            resetConfigParams();
+    /**
+     * Redraw after a change of game state on the next frame, a running loop already redraws on its next frame.
+     * Called on the main thread under the frame lock, several changes within a frame are drawn once.
+     */
+    private void invalidateGame() {
+        if (!gameLoop.isActive() && !isRenderFramePosted) {
+            isRenderFramePosted = true;
+            FrameTicker.getInstance().register(renderFrameListener);
         }
+    }
+
+    /**
+     * Puts the frames of the game on screen
+     */
+    interface GameRenderer {
+
+        /**
+         * Start producing one frame per vsync, each frame advances the game with {@link #advanceGame(long)}
+         */
+        void startFrames();
 
-        postInvalidate();
+        void stopFrames();
+
+        /**
+         * Produce a single frame for a state change while the game loop is stopped
+         */
+        void requestRender();
     }
 
     /**
@@ -200,7 +678,7 @@ abstract class FunGameView extends View {
      * @return
      */
     public int getCurrStatus() {
-        return status;
+        return game.getStatus();
     }
 
     public String getTextGameOver() {
@@ -209,6 +687,7 @@ abstract class FunGameView extends View {
 
     public void setTextGameOver(String textGameOver) {
         this.textGameOver = textGameOver;
+        invalidateText();
     }
 
     public String getTextLoading() {
@@ -217,6 +696,7 @@ abstract class FunGameView extends View {
 
     public void setTextLoading(String textLoading) {
         this.textLoading = textLoading;
+        invalidateText();
     }
 
     public String getTextLoadingFinished() {
@@ -225,6 +705,17 @@ abstract class FunGameView extends View {
 
     public void setTextLoadingFinished(String textLoadingFinished) {
         this.textLoadingFinished = textLoadingFinished;
+        invalidateText();
+    }
+
+    /**
+     * Redraw the prompt text, which is part of the static layer
+     */
+    private void invalidateText() {
+        synchronized (frameLock) {
+            staticLayerValid = false;
+            invalidateGame();
+        }
     }
 
     /**
@@ -233,7 +724,7 @@ abstract class FunGameView extends View {
      * @param context context
      * @return mobile screen size
      */
-    private DisplayMetrics getScreenMetrics(Context context) {
+    static DisplayMetrics getScreenMetrics(Context context) {
         WindowManager manager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
         DisplayMetrics dm = new DisplayMetrics();
         manager.getDefaultDisplay().getMetrics(dm);
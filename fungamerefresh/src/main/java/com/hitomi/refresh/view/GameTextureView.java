@@ -0,0 +1,168 @@
+package com.hitomi.refresh.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.view.TextureView;
+
+/**
+ * Render backend drawing a {@link FunGameView} into a TextureView from a dedicated render thread,
+ * so game frames no longer compete with the content being refreshed on the main thread.
+ * The game view stays in the hierarchy for measurement and lifecycle, it just stops drawing itself.
+ * <p>
+ * Requires a hardware accelerated window, otherwise drawing falls back to the game view.
+ */
+class GameTextureView extends TextureView implements TextureView.SurfaceTextureListener, FunGameView.GameRenderer {
+
+    private static HandlerThread renderThread;
+
+    private final FunGameView funGameView;
+
+    private final Handler renderHandler;
+
+    /**
+     * Whether the surface can be drawn, only read and written on the render thread
+     */
+    private boolean surfaceAvailable;
+
+    private volatile boolean renderPending;
+
+    private final FrameTicker.FrameListener frameListener = new FrameTicker.FrameListener() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            funGameView.advanceGame(frameTimeNanos);
+            render();
+        }
+    };
+
+    private final Runnable startFramesTask = new Runnable() {
+        @Override
+        public void run() {
+            FrameTicker.getInstance().register(frameListener);
+        }
+    };
+
+    private final Runnable stopFramesTask = new Runnable() {
+        @Override
+        public void run() {
+            FrameTicker.getInstance().unregister(frameListener);
+        }
+    };
+
+    private final Runnable renderTask = new Runnable() {
+        @Override
+        public void run() {
+            renderPending = false;
+            render();
+        }
+    };
+
+    GameTextureView(Context context, FunGameView funGameView) {
+        super(context);
+        this.funGameView = funGameView;
+        renderHandler = new Handler(getRenderThread().getLooper());
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+    }
+
+    /**
+     * One render thread is shared by every texture backed game, it lives as long as the process
+     * @return started render thread
+     */
+    private static synchronized HandlerThread getRenderThread() {
+        if (renderThread == null) {
+            renderThread = new HandlerThread("FunGameRender", Process.THREAD_PRIORITY_DISPLAY);
+            renderThread.start();
+        }
+        return renderThread;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (isHardwareAccelerated()) {
+            funGameView.setRenderer(this);
+        } else { // TextureView can only be drawn in a hardware accelerated window
+            setVisibility(GONE);
+            funGameView.setRenderer(null);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        funGameView.setRenderer(null);
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public void startFrames() {
+        renderHandler.post(startFramesTask);
+    }
+
+    @Override
+    public void stopFrames() {
+        renderHandler.post(stopFramesTask);
+    }
+
+    @Override
+    public void requestRender() {
+        if (!renderPending) {
+            renderPending = true;
+            renderHandler.post(renderTask);
+        }
+    }
+
+    /**
+     * Draw one frame of the game into the surface, runs on the render thread
+     */
+    private void render() {
+        if (!surfaceAvailable) return;
+
+        Canvas canvas = lockCanvas();
+        if (canvas == null) return;
+        try {
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            funGameView.drawFrame(canvas);
+        } finally {
+            unlockCanvasAndPost(canvas);
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                surfaceAvailable = true;
+                render();
+            }
+        });
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+        requestRender();
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(final SurfaceTexture surface) {
+        // The render thread may be drawing into the surface right now, it is released there once the frame is posted
+        renderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                surfaceAvailable = false;
+                surface.release();
+            }
+        });
+        return false;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+    }
+}
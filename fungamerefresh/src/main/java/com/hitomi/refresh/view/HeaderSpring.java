@@ -0,0 +1,138 @@
+package com.hitomi.refresh.view;
+
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+/**
+ * Critically damped spring moving a value to its target, one step per animation frame.
+ * Unlike a fixed-duration animator it starts from the velocity the finger released the header with,
+ * so a release towards the target settles sooner than a release at rest.
+ */
+final class HeaderSpring implements Runnable {
+
+    interface Listener {
+
+        void onSpringUpdate(float value);
+
+        /**
+         * The value has settled at the target, not called when the spring is canceled
+         */
+        void onSpringEnd();
+    }
+
+    /**
+     * Natural angular frequency, in radians per second: a settle takes roughly 9 / OMEGA seconds
+     */
+    private static final float OMEGA = 25.f;
+
+    /**
+     * Distance to the target, in pixels, below which the value is considered settled
+     */
+    private static final float REST_DISTANCE = .5f;
+
+    /**
+     * Speed, in pixels per second, below which the value is considered settled
+     */
+    private static final float REST_VELOCITY = 10.f;
+
+    /**
+     * Upper bound of {@link #getSettleDuration}, far beyond any settle of the header
+     */
+    private static final long MAX_SETTLE_MILLIS = 2000;
+
+    private final View view;
+
+    private final Listener listener;
+
+    private float target;
+
+    /**
+     * Coefficients of the displacement (c1 + c2 * t) * e^(-OMEGA * t)
+     */
+    private float c1, c2;
+
+    private long startTimeMillis;
+
+    private boolean running;
+
+    HeaderSpring(View view, Listener listener) {
+        this.view = view;
+        this.listener = listener;
+    }
+
+    /**
+     * Start moving from a value towards the target, replacing a running settle
+     * @param from start value
+     * @param to target value
+     * @param velocity start velocity, in units per second
+     * @param delayMillis delay before the first step
+     */
+    void start(float from, float to, float velocity, long delayMillis) {
+        cancel();
+        target = to;
+        c1 = from - to;
+        c2 = velocity + OMEGA * c1;
+        startTimeMillis = -1;
+        running = true;
+        if (delayMillis > 0) {
+            view.postDelayed(this, delayMillis);
+        } else {
+            ViewCompat.postOnAnimation(view, this);
+        }
+    }
+
+    /**
+     * Time a settle started with these values takes to come to rest, to end other animations together with it
+     * @param from start value
+     * @param to target value
+     * @param velocity start velocity, in units per second
+     * @return settle duration in milliseconds
+     */
+    static long getSettleDuration(float from, float to, float velocity) {
+        float c1 = from - to;
+        float c2 = velocity + OMEGA * c1;
+        for (long millis = 0; millis < MAX_SETTLE_MILLIS; millis++) {
+            if (isAtRest(c1, c2, millis / 1000.f)) return millis;
+        }
+        return MAX_SETTLE_MILLIS;
+    }
+
+    private static boolean isAtRest(float c1, float c2, float t) {
+        float decay = (float) Math.exp(-OMEGA * t);
+        float displacement = (c1 + c2 * t) * decay;
+        float velocity = (c2 - OMEGA * (c1 + c2 * t)) * decay;
+        return Math.abs(displacement) < REST_DISTANCE && Math.abs(velocity) < REST_VELOCITY;
+    }
+
+    void cancel() {
+        if (running) {
+            running = false;
+            view.removeCallbacks(this);
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void run() {
+        if (!running) return;
+
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        if (startTimeMillis < 0) {
+            startTimeMillis = now;
+        }
+        float t = (now - startTimeMillis) / 1000.f;
+
+        if (isAtRest(c1, c2, t)) {
+            running = false;
+            listener.onSpringUpdate(target);
+            listener.onSpringEnd();
+        } else {
+            listener.onSpringUpdate(target + (c1 + c2 * t) * (float) Math.exp(-OMEGA * t));
+            ViewCompat.postOnAnimation(view, this);
+        }
+    }
+}
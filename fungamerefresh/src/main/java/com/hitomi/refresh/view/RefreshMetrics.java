@@ -0,0 +1,242 @@
+package com.hitomi.refresh.view;
+
+/**
+ * Counters of the work done by a {@link FunGameRefreshView}, read them before and after
+ * a series of pull gestures to compare the cost of a gesture between versions.
+ * The counters are only updated on the main thread.
+ */
+public final class RefreshMetrics {
+
+    private int measurePassCount;
+
+    private int layoutPassCount;
+
+    private int gestureCount;
+
+    private int refreshCount;
+
+    private int throttledRefreshCount;
+
+    private int dedupedRefreshCount;
+
+    private int cacheHitCount;
+
+    private int cacheMissCount;
+
+    private long inflateTimeNanos, gameBuildTimeNanos;
+
+    private int gameFrameCount, gameInvalidateCount;
+
+    private int controllerInputCount, controllerApplyCount;
+
+    private long touchLatencyNanos, touchPredictionNanos;
+
+    RefreshMetrics() {
+    }
+
+    void onMeasurePass() {
+        measurePassCount++;
+    }
+
+    void onLayoutPass() {
+        layoutPassCount++;
+    }
+
+    void onGesture() {
+        gestureCount++;
+    }
+
+    void onInflated(long timeNanos) {
+        inflateTimeNanos = timeNanos;
+    }
+
+    void onGameBuilt(long timeNanos) {
+        gameBuildTimeNanos = timeNanos;
+    }
+
+    void onGameFrame() {
+        gameFrameCount++;
+    }
+
+    void onGameInvalidate() {
+        gameInvalidateCount++;
+    }
+
+    void onControllerInput() {
+        controllerInputCount++;
+    }
+
+    void onControllerApplied(long latencyNanos, long predictionNanos) {
+        controllerApplyCount++;
+        touchLatencyNanos += latencyNanos;
+        touchPredictionNanos += predictionNanos;
+    }
+
+    void onRefreshStarted() {
+        refreshCount++;
+    }
+
+    void onRefreshThrottled() {
+        throttledRefreshCount++;
+    }
+
+    void onRefreshDeduped() {
+        dedupedRefreshCount++;
+    }
+
+    void onCacheHit() {
+        cacheHitCount++;
+    }
+
+    void onCacheMiss() {
+        cacheMissCount++;
+    }
+
+    /**
+     * @return number of times the refresh view was measured
+     */
+    public int getMeasurePassCount() {
+        return measurePassCount;
+    }
+
+    /**
+     * @return number of times the refresh view and its children were laid out
+     */
+    public int getLayoutPassCount() {
+        return layoutPassCount;
+    }
+
+    /**
+     * @return number of touch gestures started on the content
+     */
+    public int getGestureCount() {
+        return gestureCount;
+    }
+
+    /**
+     * @return number of refreshes that called the listener
+     */
+    public int getRefreshCount() {
+        return refreshCount;
+    }
+
+    /**
+     * @return number of pulls within the minimum refresh interval, answered without a refresh
+     */
+    public int getThrottledRefreshCount() {
+        return throttledRefreshCount;
+    }
+
+    /**
+     * @return number of pulls that waited for the refresh in flight instead of starting one
+     */
+    public int getDedupedRefreshCount() {
+        return dedupedRefreshCount;
+    }
+
+    /**
+     * @return number of refreshes that showed a cached result while revalidating it
+     */
+    public int getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    /**
+     * @return number of refreshes that found nothing cached and waited for the listener
+     */
+    public int getCacheMissCount() {
+        return cacheMissCount;
+    }
+
+    /**
+     * @return time spent constructing the refresh view and its header in nanoseconds, not cleared by {@link #reset()}
+     */
+    public long getInflateTimeNanos() {
+        return inflateTimeNanos;
+    }
+
+    /**
+     * @return time spent building the game and the curtain in nanoseconds, 0 while they are not built,
+     * not cleared by {@link #reset()}
+     */
+    public long getGameBuildTimeNanos() {
+        return gameBuildTimeNanos;
+    }
+
+    /**
+     * @return number of frames the game view handled on the main thread
+     */
+    public int getGameFrameCount() {
+        return gameFrameCount;
+    }
+
+    /**
+     * @return number of invalidations the game view requested on the main thread
+     */
+    public int getGameInvalidateCount() {
+        return gameInvalidateCount;
+    }
+
+    /**
+     * @return average invalidations per game frame since the last reset, at most 1
+     */
+    public float getGameInvalidatesPerFrame() {
+        return gameFrameCount == 0 ? 0 : (float) gameInvalidateCount / gameFrameCount;
+    }
+
+    /**
+     * @return number of controller moves received from touch events
+     */
+    public int getControllerInputCount() {
+        return controllerInputCount;
+    }
+
+    /**
+     * @return number of controller moves applied to the game, at most one per frame
+     */
+    public int getControllerApplyCount() {
+        return controllerApplyCount;
+    }
+
+    /**
+     * @return average time from a touch event to the frame moving the controller, in nanoseconds
+     */
+    public long getAverageTouchLatencyNanos() {
+        return controllerApplyCount == 0 ? 0 : touchLatencyNanos / controllerApplyCount;
+    }
+
+    /**
+     * @return average distance the controller is drawn behind the finger, in nanoseconds of finger
+     * movement: the touch latency minus the part covered by prediction
+     */
+    public long getAverageTouchLagNanos() {
+        return controllerApplyCount == 0 ? 0 : (touchLatencyNanos - touchPredictionNanos) / controllerApplyCount;
+    }
+
+    /**
+     * @return average layout passes per gesture since the last reset
+     */
+    public float getLayoutPassesPerGesture() {
+        return gestureCount == 0 ? 0 : (float) layoutPassCount / gestureCount;
+    }
+
+    /**
+     * Start counting from zero
+     */
+    public void reset() {
+        measurePassCount = 0;
+        layoutPassCount = 0;
+        gestureCount = 0;
+        refreshCount = 0;
+        throttledRefreshCount = 0;
+        dedupedRefreshCount = 0;
+        cacheHitCount = 0;
+        cacheMissCount = 0;
+        gameFrameCount = 0;
+        gameInvalidateCount = 0;
+        controllerInputCount = 0;
+        controllerApplyCount = 0;
+        touchLatencyNanos = 0;
+        touchPredictionNanos = 0;
+    }
+}
@@ -0,0 +1,85 @@
+package com.hitomi.refresh.view;
+
+/**
+ * Estimates the finger velocity from the recent touch samples, the historical points batched into
+ * each move event included, so the game controller can be drawn where the finger is at the frame
+ * time instead of where it was when the event was sampled.
+ */
+final class TouchPredictor {
+
+    /**
+     * Only the samples of this last stretch of time describe the current finger speed
+     */
+    static final long VELOCITY_WINDOW_NANOS = 50000000L;
+
+    /**
+     * Longest extrapolation, a finger stopping or turning overshoots by at most this much movement
+     */
+    static final long MAX_PREDICTION_NANOS = 20000000L;
+
+    private static final int MAX_SAMPLES = 16;
+
+    private final float[] positions = new float[MAX_SAMPLES];
+
+    private final long[] times = new long[MAX_SAMPLES];
+
+    /**
+     * Index of the newest sample in the ring, and number of samples stored
+     */
+    private int head, size;
+
+    void reset() {
+        size = 0;
+    }
+
+    /**
+     * @param position  finger position
+     * @param timeNanos time the position was sampled, not before the previous sample
+     */
+    void addSample(float position, long timeNanos) {
+        head = (head + 1) % MAX_SAMPLES;
+        positions[head] = position;
+        times[head] = timeNanos;
+        if (size < MAX_SAMPLES) size++;
+    }
+
+    /**
+     * Least squares slope of the samples within {@link #VELOCITY_WINDOW_NANOS} of the newest one
+     *
+     * @return finger velocity in pixels per second, 0 without two samples far enough apart
+     */
+    float getVelocity() {
+        if (size < 2) return 0;
+
+        long latestTime = times[head];
+        int count = 0;
+        double sumT = 0, sumP = 0, sumTT = 0, sumTP = 0;
+        for (int i = 0; i < size; i++) {
+            int index = (head - i + MAX_SAMPLES) % MAX_SAMPLES;
+            long age = latestTime - times[index];
+            if (age > VELOCITY_WINDOW_NANOS) break;
+
+            // Times relative to the newest sample keep the sums precise
+            double t = -age / 1e9;
+            double p = positions[index];
+            sumT += t;
+            sumP += p;
+            sumTT += t * t;
+            sumTP += t * p;
+            count++;
+        }
+        double denominator = count * sumTT - sumT * sumT;
+        if (count < 2 || denominator < 1e-12) return 0;
+
+        return (float) ((count * sumTP - sumT * sumP) / denominator);
+    }
+
+    /**
+     * @param eventTimeNanos time the applied touch event was sampled
+     * @param frameTimeNanos time of the frame drawing it
+     * @return how far ahead of the event the finger is extrapolated, between 0 and {@link #MAX_PREDICTION_NANOS}
+     */
+    static long getPredictionNanos(long eventTimeNanos, long frameTimeNanos) {
+        return Math.max(0, Math.min(frameTimeNanos - eventTimeNanos, MAX_PREDICTION_NANOS));
+    }
+}
@@ -0,0 +1,105 @@
+package com.hitomi.refresh.view;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * One frame callback per vsync is shared by every registered game.
+ */
+public class FrameTickerTest {
+
+    private int postedFrames;
+
+    private FrameTicker frameTicker;
+
+    @Before
+    public void setUp() {
+        postedFrames = 0;
+        frameTicker = new FrameTicker(new FrameTicker.FrameSource() {
+            @Override
+            public void postFrame(FrameTicker ticker) {
+                postedFrames++;
+            }
+
+            @Override
+            public void removeFrame(FrameTicker ticker) {
+                postedFrames--;
+            }
+        });
+    }
+
+    @Test
+    public void oneFramePerVsyncForAllListeners() {
+        CountingListener first = new CountingListener();
+        CountingListener second = new CountingListener();
+        CountingListener third = new CountingListener();
+        frameTicker.register(first);
+        frameTicker.register(second);
+        frameTicker.register(third);
+        assertEquals(1, postedFrames);
+
+        frameTicker.doFrame(42L);
+        assertEquals(2, postedFrames);
+        assertEquals(1, first.frames);
+        assertEquals(1, second.frames);
+        assertEquals(42L, third.lastFrameTimeNanos);
+    }
+
+    @Test
+    public void onlyRegisteredListenersTick() {
+        CountingListener active = new CountingListener();
+        CountingListener inactive = new CountingListener();
+        frameTicker.register(active);
+        frameTicker.register(inactive);
+        frameTicker.unregister(inactive);
+
+        frameTicker.doFrame(1L);
+        frameTicker.doFrame(2L);
+        assertEquals(2, active.frames);
+        assertEquals(0, inactive.frames);
+    }
+
+    @Test
+    public void stopsPostingWhenEmpty() {
+        CountingListener listener = new CountingListener();
+        frameTicker.register(listener);
+        frameTicker.unregister(listener);
+
+        assertFalse(frameTicker.isFramePosted());
+        assertEquals(0, postedFrames);
+    }
+
+    @Test
+    public void unregisterDuringDispatch() {
+        final CountingListener second = new CountingListener();
+        FrameTicker.FrameListener first = new FrameTicker.FrameListener() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                frameTicker.unregister(this);
+                frameTicker.unregister(second);
+            }
+        };
+        frameTicker.register(first);
+        frameTicker.register(second);
+
+        frameTicker.doFrame(1L);
+        assertEquals(0, second.frames);
+        assertEquals(0, frameTicker.getListenerCount());
+        assertFalse(frameTicker.isFramePosted());
+    }
+
+    private static class CountingListener implements FrameTicker.FrameListener {
+
+        int frames;
+
+        long lastFrameTimeNanos;
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            frames++;
+            lastFrameTimeNanos = frameTimeNanos;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.hitomi.refresh.view;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Settle durations the racket uses to return together with the header.
+ */
+public class HeaderSpringTest {
+
+    @Test
+    public void settledValueTakesNoTime() {
+        assertEquals(0, HeaderSpring.getSettleDuration(0, 0, 0));
+    }
+
+    @Test
+    public void longerPullsSettleLater() {
+        long shortPull = HeaderSpring.getSettleDuration(100, 0, 0);
+        long longPull = HeaderSpring.getSettleDuration(600, 0, 0);
+
+        assertTrue(shortPull > 0);
+        assertTrue(longPull > shortPull);
+        assertTrue(longPull < 1000);
+    }
+
+    @Test
+    public void releaseTowardsTheTargetSettlesSooner() {
+        assertTrue(HeaderSpring.getSettleDuration(300, 0, -1500) < HeaderSpring.getSettleDuration(300, 0, 0));
+    }
+}
@@ -0,0 +1,58 @@
+package com.hitomi.refresh.view;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Finger velocity from the batched touch samples and how far ahead it is extrapolated.
+ */
+public class TouchPredictorTest {
+
+    private static final long MILLI = 1000000L;
+
+    private TouchPredictor touchPredictor;
+
+    @Before
+    public void setUp() {
+        touchPredictor = new TouchPredictor();
+    }
+
+    @Test
+    public void noVelocityWithoutTwoSamples() {
+        assertEquals(0, touchPredictor.getVelocity(), 0);
+
+        touchPredictor.addSample(100, 10 * MILLI);
+        assertEquals(0, touchPredictor.getVelocity(), 0);
+    }
+
+    @Test
+    public void steadyFingerVelocity() {
+        // 2 pixels per 4ms sample, as a 250Hz touch screen batches them into one move event
+        for (int i = 0; i < 10; i++) {
+            touchPredictor.addSample(100 + 2 * i, 1000 * MILLI + 4 * i * MILLI);
+        }
+        assertEquals(500, touchPredictor.getVelocity(), .1f);
+    }
+
+    @Test
+    public void oldSamplesAreIgnored() {
+        touchPredictor.addSample(0, 0);
+        touchPredictor.addSample(1000, 10 * MILLI); // A jump long before the current movement
+        for (int i = 0; i < 5; i++) {
+            touchPredictor.addSample(1000 - i, 200 * MILLI + i * MILLI);
+        }
+        assertEquals(-1000, touchPredictor.getVelocity(), .1f);
+
+        touchPredictor.reset();
+        assertEquals(0, touchPredictor.getVelocity(), 0);
+    }
+
+    @Test
+    public void predictionIsShortAndNeverBackwards() {
+        assertEquals(8 * MILLI, TouchPredictor.getPredictionNanos(100 * MILLI, 108 * MILLI));
+        assertEquals(TouchPredictor.MAX_PREDICTION_NANOS, TouchPredictor.getPredictionNanos(100 * MILLI, 300 * MILLI));
+        assertEquals(0, TouchPredictor.getPredictionNanos(100 * MILLI, 90 * MILLI));
+    }
+}
@@ -0,0 +1,106 @@
+package com.hitomi.fungamerefreshdemo;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.test.ActivityInstrumentationTestCase2;
+import android.test.TouchUtils;
+import android.view.View;
+
+import com.hitomi.refresh.view.FunGameRefreshView;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Finishes the activity in the middle of a refresh and checks that nothing started by the
+ * refresh view, animators, posted tasks or the refresh task, keeps the activity alive.
+ */
+public class ActivityLeakTest extends ActivityInstrumentationTestCase2<ListViewActivity> {
+
+    /**
+     * Far shorter than the refresh, which only ends when the test releases it
+     */
+    private static final long GC_TIMEOUT = 5000;
+
+    private final CountDownLatch refreshRelease = new CountDownLatch(1);
+
+    public ActivityLeakTest() {
+        super(ListViewActivity.class);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        refreshRelease.countDown();
+        super.tearDown();
+    }
+
+    public void testActivityCollectableAfterFinishDuringRefresh() {
+        Activity activity = getActivity();
+        setBlockingRefreshListener(activity);
+        View listView = activity.findViewById(R.id.list_view);
+
+        int[] location = new int[2];
+        listView.getLocationOnScreen(location);
+        float x = location[0] + listView.getWidth() * .5f;
+        float fromY = location[1] + 10;
+        TouchUtils.drag(this, x, x, fromY, fromY + listView.getHeight() * .6f, 20);
+        // Let the header settle and the refresh start
+        getInstrumentation().waitForIdleSync();
+        SystemClock.sleep(500);
+
+        WeakReference<Activity> activityRef = new WeakReference<>(activity);
+        activity.finish();
+        activity = null;
+        listView = null;
+        setActivity(null);
+        getInstrumentation().waitForIdleSync();
+
+        long deadline = SystemClock.uptimeMillis() + GC_TIMEOUT;
+        while (activityRef.get() != null && SystemClock.uptimeMillis() < deadline) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            SystemClock.sleep(100);
+        }
+        assertNull("The finished activity is still reachable", activityRef.get());
+    }
+
+    /**
+     * Replace the demo listener, the refresh view is not kept in a local of the test
+     */
+    private void setBlockingRefreshListener(Activity activity) {
+        final FunGameRefreshView refreshView = (FunGameRefreshView) activity.findViewById(R.id.refresh_fun_game);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                refreshView.setOnRefreshListener(new BlockingRefreshListener(refreshRelease));
+            }
+        });
+    }
+
+    /**
+     * Refreshes until the test releases it, it ignores the interrupt of a canceled refresh.
+     * A static class, it does not keep the activity alive by itself.
+     */
+    private static class BlockingRefreshListener implements FunGameRefreshView.FunGameRefreshListener {
+
+        private final CountDownLatch release;
+
+        BlockingRefreshListener(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onPullRefreshing() {
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+
+        @Override
+        public void onRefreshComplete() {
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.hitomi.fungamerefreshdemo;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.test.ActivityInstrumentationTestCase2;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.FrameLayout;
+import android.widget.ListView;
+
+import com.hitomi.refresh.view.FunGameConfig;
+import com.hitomi.refresh.view.FunGameRefreshView;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup benchmark: time from creating the refresh screen to its first drawn frame, once inflated
+ * from the demo layout and once built in code from a shared {@link FunGameConfig}. The medians are
+ * logged and reported in the instrumentation status, run it with
+ * {@code adb shell am instrument -w -r -e class com.hitomi.fungamerefreshdemo.InflateBenchmarkTest ...}
+ */
+public class InflateBenchmarkTest extends ActivityInstrumentationTestCase2<ListViewActivity> {
+
+    private static final String TAG = "InflateBenchmark";
+
+    private static final int ITERATIONS = 25;
+
+    private interface ViewFactory {
+        View create(Activity activity, ViewGroup container);
+    }
+
+    public InflateBenchmarkTest() {
+        super(ListViewActivity.class);
+    }
+
+    public void testInflateToFirstFrame() throws InterruptedException {
+        final FunGameConfig config = new FunGameConfig.Builder()
+                .setLoadingText("Play a game to relieve boredom")
+                .build();
+
+        long[] xmlTimes = new long[ITERATIONS];
+        long[] codeTimes = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            xmlTimes[i] = measureFirstFrame(new ViewFactory() {
+                @Override
+                public View create(Activity activity, ViewGroup container) {
+                    return LayoutInflater.from(activity).inflate(R.layout.activity_list_view, container, false);
+                }
+            });
+            codeTimes[i] = measureFirstFrame(new ViewFactory() {
+                @Override
+                public View create(Activity activity, ViewGroup container) {
+                    FunGameRefreshView refreshView = new FunGameRefreshView(activity, config);
+                    refreshView.addView(new ListView(activity));
+                    return refreshView;
+                }
+            });
+        }
+
+        Bundle results = new Bundle();
+        results.putLong("xml_inflate_to_first_frame_median_us", median(xmlTimes) / 1000);
+        results.putLong("code_inflate_to_first_frame_median_us", median(codeTimes) / 1000);
+        Log.i(TAG, results.toString());
+        getInstrumentation().sendStatus(Activity.RESULT_OK, results);
+    }
+
+    /**
+     * Replace the content of the activity with a new view and wait until its first frame is drawn
+     *
+     * @return nanoseconds from the start of the view creation to the end of the first frame
+     */
+    private long measureFirstFrame(final ViewFactory factory) throws InterruptedException {
+        final Activity activity = getActivity();
+        final CountDownLatch firstFrame = new CountDownLatch(1);
+        final long[] duration = new long[1];
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                FrameLayout container = new FrameLayout(activity);
+                activity.setContentView(container);
+
+                final long startTime = System.nanoTime();
+                final View view = factory.create(activity, container);
+                container.addView(view);
+                view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+                    @Override
+                    public boolean onPreDraw() {
+                        view.getViewTreeObserver().removeOnPreDrawListener(this);
+                        // Runs once the traversal drawing this frame is over
+                        view.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                duration[0] = System.nanoTime() - startTime;
+                                firstFrame.countDown();
+                            }
+                        });
+                        return true;
+                    }
+                });
+            }
+        });
+        assertTrue("No frame was drawn", firstFrame.await(5, TimeUnit.SECONDS));
+        return duration[0];
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}